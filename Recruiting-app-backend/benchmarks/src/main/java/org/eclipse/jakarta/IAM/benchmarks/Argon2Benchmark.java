@@ -0,0 +1,51 @@
+package org.eclipse.jakarta.IAM.benchmarks;
+
+import org.eclipse.jakarta.IAM.security.Argon2Utility;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Password hashing and verification as done on every signup and login.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class Argon2Benchmark {
+
+    private static final String PASSWORD = "correct horse battery staple";
+
+    private String serverHash;
+
+    @Setup
+    public void setUp() {
+        serverHash = Argon2Utility.hash(PASSWORD.toCharArray());
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String hash() {
+        return Argon2Utility.hash(PASSWORD.toCharArray());
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public String hashContended() {
+        return Argon2Utility.hash(PASSWORD.toCharArray());
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean check() {
+        return Argon2Utility.check(serverHash, PASSWORD.toCharArray());
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public boolean checkContended() {
+        return Argon2Utility.check(serverHash, PASSWORD.toCharArray());
+    }
+}
@@ -0,0 +1,76 @@
+package org.eclipse.jakarta.IAM.benchmarks;
+
+import org.eclipse.jakarta.IAM.security.AuthorizationCode;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Authorization code issuance after login and its exchange at the token endpoint.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AuthorizationCodeBenchmark {
+
+    private static final String CODE_VERIFIER = "dBjftJeZ4CVP-mB92K27uhbUJU1p1r_wW1gFWFOEjXk";
+    private static final int CODES = 1024;
+
+    private AuthorizationCode authorizationCode;
+    private String codeChallenge;
+    private final String[] codes = new String[CODES];
+
+    @Setup
+    public void setUp() throws Exception {
+        authorizationCode = new AuthorizationCode("recruiting-frontend", "admin@recruiting.com",
+                "profile.read cv.read", Instant.now().plusSeconds(3600).getEpochSecond(),
+                "http://localhost/callback");
+        byte[] digest = MessageDigest.getInstance("SHA-256")
+                .digest(CODE_VERIFIER.getBytes(StandardCharsets.UTF_8));
+        codeChallenge = Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        // Each code is exchanged once: never decode the same code twice in a row
+        for (int i = 0; i < CODES; i++) {
+            codes[i] = authorizationCode.getCode(codeChallenge);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+
+        String code(AuthorizationCodeBenchmark benchmark) {
+            return benchmark.codes[next++ & CODES - 1];
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String getCode() throws Exception {
+        return authorizationCode.getCode(codeChallenge);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public String getCodeContended() throws Exception {
+        return authorizationCode.getCode(codeChallenge);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public AuthorizationCode decode(Cursor cursor) throws Exception {
+        return AuthorizationCode.decode(cursor.code(this), CODE_VERIFIER);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public AuthorizationCode decodeContended(Cursor cursor) throws Exception {
+        return AuthorizationCode.decode(cursor.code(this), CODE_VERIFIER);
+    }
+}
@@ -0,0 +1,132 @@
+package org.eclipse.jakarta.IAM.benchmarks;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JOSEObjectType;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jwt.JWT;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.eclipse.jakarta.IAM.security.JwtManager;
+import org.eclipse.jakarta.IAM.security.SigningAlgorithm;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Access token minting and validation as done by the token endpoint and resource servers.
+ *
+ * {@code generateAccessTokenWithClaimsSet} mints the same claims through a Nimbus
+ * claims set and {@code SignedJWT}, the way tokens were minted before the template
+ * engine; compare its {@code gc.alloc.rate.norm} with {@code generateAccessToken}.
+ *
+ * {@code validateJWT} runs with the validated-token cache disabled, so it measures
+ * the parse and signature check of every token a node sees for the first time;
+ * {@code validateJWTCached} measures the repeated validations the cache answers.
+ * The cache size is set for the forked JVM: do not run the suite with {@code -f 0}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtManagerBenchmark {
+
+    private static final String[] ROLES = {"USER"};
+
+    @Param({"EdDSA", "HS256"})
+    private String algorithmName;
+
+    private JwtManager jwtManager;
+    private String accessToken;
+    private JWSHeader header;
+    private JWSSigner signer;
+
+    @Setup
+    public void setUp() throws JOSEException {
+        System.setProperty("iam.jwt.algorithm", algorithmName);
+        jwtManager = new JwtManager();
+        jwtManager.start();
+        accessToken = generate();
+
+        SigningAlgorithm algorithm = SigningAlgorithm.named(algorithmName);
+        JWK key = algorithm.generate("benchmark", new Date());
+        header = new JWSHeader.Builder(algorithm.jwsAlgorithm()).keyID("benchmark").type(JOSEObjectType.JWT).build();
+        signer = algorithm.signer(key);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String generateAccessToken() {
+        return generate();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public String generateAccessTokenContended() {
+        return generate();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String generateAccessTokenWithClaimsSet() throws JOSEException {
+        Instant now = Instant.now();
+        JWTClaimsSet claimsSet = new JWTClaimsSet.Builder()
+                .issuer("my-iam-server")
+                .audience(List.of("my-client-app"))
+                .subject("admin@recruiting.com")
+                .claim("upn", "admin@recruiting.com")
+                .claim("tenant_id", "recruiting-frontend")
+                .claim("scope", "profile.read cv.read")
+                .claim("roles", ROLES)
+                .jwtID(UUID.randomUUID().toString())
+                .issueTime(Date.from(now))
+                .notBeforeTime(Date.from(now))
+                .expirationTime(Date.from(now.plus(3600, ChronoUnit.SECONDS)))
+                .build();
+        SignedJWT signedJWT = new SignedJWT(header, claimsSet);
+        signedJWT.sign(signer);
+        return signedJWT.serialize();
+    }
+
+    // ===== Validation: parse and signature check, in a JVM without the validated-token cache =====
+    @Benchmark
+    @Threads(1)
+    @Fork(value = 1, jvmArgsAppend = "-Diam.jwt.validation-cache.size=0")
+    public Optional<JWT> validateJWT() {
+        return jwtManager.validateJWT(accessToken);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    @Fork(value = 1, jvmArgsAppend = "-Diam.jwt.validation-cache.size=0")
+    public Optional<JWT> validateJWTContended() {
+        return jwtManager.validateJWT(accessToken);
+    }
+
+    // ===== Validation of a token already in the validated-token cache =====
+    @Benchmark
+    @Threads(1)
+    public Optional<JWT> validateJWTCached() {
+        return jwtManager.validateJWT(accessToken);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Optional<JWT> validateJWTCachedContended() {
+        return jwtManager.validateJWT(accessToken);
+    }
+
+    private String generate() {
+        return jwtManager.generateAccessToken("recruiting-frontend", "admin@recruiting.com",
+                "profile.read cv.read", ROLES);
+    }
+}
@@ -1,24 +1,30 @@
 package org.eclipse.jakarta.IAM.boundaries;
 
+import jakarta.annotation.Resource;
+import jakarta.enterprise.concurrent.ManagedExecutorService;
 import jakarta.enterprise.context.RequestScoped;
 import jakarta.inject.Inject;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.*;
 
+import org.eclipse.jakarta.IAM.controllers.AsyncResponses;
 import org.eclipse.jakarta.IAM.controllers.IAMRepository;
+import org.eclipse.jakarta.IAM.controllers.TenantRegistry;
 import org.eclipse.jakarta.IAM.entities.Grant;
 import org.eclipse.jakarta.IAM.entities.Identity;
 import org.eclipse.jakarta.IAM.entities.Tenant;
-import org.eclipse.jakarta.IAM.security.Argon2Utility;
 import org.eclipse.jakarta.IAM.security.AuthorizationCode;
+import org.eclipse.jakarta.IAM.security.LoginThrottle;
+import org.eclipse.jakarta.IAM.security.PasswordHashingService;
 
 import java.io.InputStream;
 import java.net.URI;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
-import java.time.Instant;
-import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 
 @Path("/")
 @RequestScoped
@@ -29,6 +35,18 @@ public class AuthenticationEndpoint {
     @Inject
     private IAMRepository iamRepository;
 
+    @Inject
+    private TenantRegistry tenantRegistry;
+
+    @Inject
+    private PasswordHashingService passwordHashingService;
+
+    @Inject
+    private LoginThrottle loginThrottle;
+
+    @Resource
+    private ManagedExecutorService managedExecutor;
+
     // ===== Step 1: Show login form =====
     @GET
     @Produces(MediaType.TEXT_HTML)
@@ -38,12 +56,18 @@ public class AuthenticationEndpoint {
         String clientId = params.getFirst("client_id");
         String redirectUri = params.getFirst("redirect_uri");
         String requestedScope = params.getFirst("scope");
+        String codeChallenge = params.getFirst("code_challenge");
 
         if (clientId == null || redirectUri == null) {
             return error("Missing client_id or redirect_uri");
         }
 
-        Optional<Tenant> tenantOpt = iamRepository.findTenantByName(clientId);
+        // Codes carry a SHA-256 challenge: plain PKCE and clients without PKCE are turned away
+        if (!"S256".equals(params.getFirst("code_challenge_method")) || !AuthorizationCode.isChallenge(codeChallenge)) {
+            return error("Missing or invalid code_challenge (code_challenge_method must be S256)");
+        }
+
+        Optional<Tenant> tenantOpt = tenantRegistry.findByName(clientId);
         if (tenantOpt.isEmpty()) {
             return error("Invalid client_id");
         }
@@ -57,7 +81,8 @@ public class AuthenticationEndpoint {
             };
 
             // Save authorization context in cookie for POST login
-            String ctxValue = clientId + "|" + redirectUri + "|" + (requestedScope != null ? requestedScope : "");
+            String ctxValue = new AuthorizationContext(clientId, redirectUri, requestedScope, codeChallenge)
+                    .toCookieValue();
             NewCookie cookie = new NewCookie.Builder(AUTH_CONTEXT_COOKIE)
                     .httpOnly(true).secure(true).sameSite(NewCookie.SameSite.STRICT)
                     .value(ctxValue).build();
@@ -72,40 +97,49 @@ public class AuthenticationEndpoint {
     }
 
     // ===== Step 2: Handle login submission =====
+    // Completes asynchronously: the identity lookup runs on the managed executor and the
+    // Argon2 verification on the hashing pool, so no HTTP worker waits on either.
     @POST
     @Path("/login")
     @Consumes(MediaType.APPLICATION_FORM_URLENCODED)
-    public Response login(@CookieParam(AUTH_CONTEXT_COOKIE) Cookie context,
-                          @FormParam("username") String username,
-                          @FormParam("password") String password) {
-
-        if (context == null) return error("Missing authorization context");
-
-        Optional<Identity> identityOpt = iamRepository.findIdentityByUsername(username);
-        if (identityOpt.isEmpty()) return error("Invalid credentials");
+    public CompletionStage<Response> login(@CookieParam(AUTH_CONTEXT_COOKIE) Cookie context,
+                                           @FormParam("username") String username,
+                                           @FormParam("password") String password,
+                                           @Context HttpServletRequest request) {
+
+        if (context == null) return CompletableFuture.completedFuture(error("Missing authorization context"));
+
+        String clientAddress = request.getRemoteAddr();
+        loginThrottle.check(username, clientAddress);
+
+        return CompletableFuture.supplyAsync(() -> iamRepository.findIdentityByUsername(username), managedExecutor)
+                .thenCompose(identityOpt -> {
+                    if (identityOpt.isEmpty()) {
+                        loginThrottle.recordFailure(username, clientAddress);
+                        return CompletableFuture.completedFuture(error("Invalid credentials"));
+                    }
+                    Identity identity = identityOpt.get();
+                    return passwordHashingService.verifyAsync(identity, password.toCharArray())
+                            .thenApply(valid -> {
+                                if (!valid) {
+                                    loginThrottle.recordFailure(username, clientAddress);
+                                    return error("Invalid credentials");
+                                }
+                                return redirectWithCode(context, identity);
+                            });
+                })
+                .exceptionally(AsyncResponses::failure);
+    }
 
-        Identity identity = identityOpt.get();
-        if (!Argon2Utility.check(identity.getPassword(), password.toCharArray())) {
-            return error("Invalid credentials");
+    private Response redirectWithCode(Cookie context, Identity identity) {
+        AuthorizationContext authorization = AuthorizationContext.fromCookieValue(context.getValue());
+        if (authorization == null) {
+            return error("Invalid authorization context");
         }
 
-        // Parse cookie context
-        String[] ctx = context.getValue().split("\\|");
-        String clientId = ctx[0];
-        String redirectUri = ctx[1];
-        String scope = ctx.length > 2 ? ctx[2] : "";
-
         try {
-            AuthorizationCode code = new AuthorizationCode(
-                    clientId,
-                    identity.getUsername(),
-                    scope,
-                    Instant.now().plus(2, ChronoUnit.MINUTES).getEpochSecond(),
-                    redirectUri
-            );
-
-            String redirect = redirectUri + "?code=" +
-                    URLEncoder.encode(code.getCode(null), StandardCharsets.UTF_8);
+            String redirect = authorization.redirectUri() + "?code=" +
+                    URLEncoder.encode(authorization.issueCode(identity.getUsername()), StandardCharsets.UTF_8);
 
             return Response.seeOther(URI.create(redirect))
                     .cookie(expireContextCookie())
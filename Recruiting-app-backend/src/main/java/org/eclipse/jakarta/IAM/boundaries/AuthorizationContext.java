@@ -0,0 +1,39 @@
+package org.eclipse.jakarta.IAM.boundaries;
+
+import org.eclipse.jakarta.IAM.security.AuthorizationCode;
+
+import java.time.Instant;
+
+/**
+ * Authorization request accepted by {@code /authorize}, carried to {@code /login}
+ * in the {@link AuthenticationEndpoint#AUTH_CONTEXT_COOKIE} cookie as
+ * {@code clientId|redirectUri|scope|codeChallenge}.
+ */
+record AuthorizationContext(String clientId, String redirectUri, String scope, String codeChallenge) {
+
+    String toCookieValue() {
+        return clientId + "|" + redirectUri + "|" + (scope != null ? scope : "") + "|" + codeChallenge;
+    }
+
+    /**
+     * @return null when the cookie was not set by {@code /authorize}
+     */
+    static AuthorizationContext fromCookieValue(String value) {
+        String[] ctx = value.split("\\|", -1);
+        if (ctx.length != 4) {
+            return null;
+        }
+        return new AuthorizationContext(ctx[0], ctx[1], ctx[2], ctx[3]);
+    }
+
+    // ===== Code for the authenticated identity, bound to the PKCE challenge =====
+    String issueCode(String username) throws Exception {
+        return new AuthorizationCode(
+                clientId,
+                username,
+                scope,
+                Instant.now().plusSeconds(AuthorizationCode.LIFETIME_SECONDS).getEpochSecond(),
+                redirectUri
+        ).getCode(codeChallenge);
+    }
+}
@@ -0,0 +1,287 @@
+package org.eclipse.jakarta.IAM.boundaries;
+
+import com.nimbusds.jwt.JWT;
+import com.nimbusds.jwt.JWTClaimsSet;
+import jakarta.annotation.Resource;
+import jakarta.enterprise.concurrent.ManagedExecutorService;
+import jakarta.inject.Inject;
+import jakarta.json.Json;
+import jakarta.json.JsonArray;
+import jakarta.json.JsonObject;
+import jakarta.json.JsonObjectBuilder;
+import jakarta.json.JsonValue;
+import jakarta.json.stream.JsonGenerator;
+import jakarta.persistence.PersistenceException;
+import jakarta.transaction.TransactionalException;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.FormParam;
+import jakarta.ws.rs.HeaderParam;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import org.eclipse.jakarta.IAM.controllers.Role;
+import org.eclipse.jakarta.IAM.controllers.TenantRegistry;
+import org.eclipse.jakarta.IAM.entities.Tenant;
+import org.eclipse.jakarta.IAM.security.JwtManager;
+import org.eclipse.jakarta.IAM.security.RevocationStore;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+
+/**
+ * OAuth 2.0 token introspection (RFC 7662) for resource servers that do not
+ * verify tokens themselves. Callers authenticate as a registered client, with
+ * HTTP Basic or, on the single-token variant only, {@code client_id}/{@code client_secret}
+ * form parameters.
+ *
+ * The batch variant takes a JSON array of tokens, verifies them in parallel on
+ * the managed executor and streams one result per token, tagged with its index
+ * in the request, as soon as its verification completes. Its body being the
+ * array itself, it requires HTTP Basic authentication. A batch never has more
+ * than {@code iam.introspection.batch.parallelism} verifications in flight, so
+ * large batches cannot take over the executor shared with logins; when the
+ * stream fails, the verifications still in flight are cancelled.
+ *
+ * When the revocation list cannot be read, the single variant answers 503 and
+ * the batch variant reports {@code "error":"server_error"} for the affected
+ * indexes, rather than declaring valid tokens inactive.
+ */
+@Path("/oauth/introspect")
+public class IntrospectionEndpoint {
+
+    private static final int BATCH_MAX_SIZE = Integer.getInteger("iam.introspection.batch.max-size", 1000);
+    private static final int BATCH_PARALLELISM = Math.max(1, Integer.getInteger(
+            "iam.introspection.batch.parallelism", Runtime.getRuntime().availableProcessors()));
+
+    @Inject
+    private TenantRegistry tenantRegistry;
+
+    @Inject
+    private JwtManager jwtManager;
+
+    @Inject
+    private RevocationStore revocationStore;
+
+    @Resource
+    private ManagedExecutorService managedExecutor;
+
+    // ===== Single token (RFC 7662) =====
+    @POST
+    @Produces(MediaType.APPLICATION_JSON)
+    @Consumes(MediaType.APPLICATION_FORM_URLENCODED)
+    public Response introspect(@HeaderParam(HttpHeaders.AUTHORIZATION) String authorization,
+                               @FormParam("client_id") String clientId,
+                               @FormParam("client_secret") String clientSecret,
+                               @FormParam("token") String token) {
+        if (authenticateClient(authorization, clientId, clientSecret).isEmpty()) {
+            return unauthorized();
+        }
+        if (token == null || token.isEmpty()) {
+            return responseError("invalid_request", "token is required");
+        }
+        try {
+            return Response.ok(introspect(token))
+                    .header("Cache-Control", "no-store")
+                    .build();
+        } catch (PersistenceException | TransactionalException e) {
+            // The revocation list could not be read: answering inactive would log users out
+            return responseError("server_error", "Unable to check token revocation",
+                    Response.Status.SERVICE_UNAVAILABLE);
+        }
+    }
+
+    // ===== Batch: JSON array of tokens, results streamed in completion order =====
+    @POST
+    @Path("/batch")
+    @Produces(MediaType.APPLICATION_JSON)
+    @Consumes(MediaType.APPLICATION_JSON)
+    public Response introspectBatch(@HeaderParam(HttpHeaders.AUTHORIZATION) String authorization,
+                                    JsonArray tokens) {
+        if (authenticateClient(authorization, null, null).isEmpty()) {
+            return unauthorized();
+        }
+        if (tokens == null || tokens.size() > BATCH_MAX_SIZE
+                || !tokens.stream().allMatch(token -> token.getValueType() == JsonValue.ValueType.STRING)) {
+            return responseError("invalid_request", "Expected an array of at most " + BATCH_MAX_SIZE + " tokens");
+        }
+
+        StreamingOutput stream = output -> {
+            ExecutorCompletionService<JsonObject> completion = new ExecutorCompletionService<>(managedExecutor);
+            List<Future<JsonObject>> pending = new ArrayList<>(Math.min(tokens.size(), BATCH_PARALLELISM));
+            int submitted = 0;
+            try (JsonGenerator generator = Json.createGenerator(output)) {
+                // A sliding window of verifications: each result written lets the next token in
+                while (submitted < tokens.size() && submitted < BATCH_PARALLELISM) {
+                    pending.add(submit(completion, tokens, submitted++));
+                }
+                generator.writeStartArray();
+                for (int i = 0; i < tokens.size(); i++) {
+                    Future<JsonObject> next = take(completion);
+                    pending.remove(next);
+                    if (submitted < tokens.size()) {
+                        pending.add(submit(completion, tokens, submitted++));
+                    }
+                    generator.write(get(next));
+                    generator.flush();
+                }
+                generator.writeEnd();
+            } finally {
+                // Client gone or verification failed: do not keep verifying for nobody
+                pending.forEach(future -> future.cancel(true));
+            }
+        };
+        return Response.ok(stream)
+                .header("Cache-Control", "no-store")
+                .build();
+    }
+
+    // ===== Helper methods =====
+    private JsonObject introspect(String token) {
+        Optional<JWT> jwtOpt;
+        try {
+            jwtOpt = jwtManager.validateJWT(token);
+        } catch (RuntimeException e) {
+            // Malformed tokens and unknown keys are simply not active
+            return inactive();
+        }
+        if (jwtOpt.isEmpty()) {
+            return inactive();
+        }
+        try {
+            JWT jwt = jwtOpt.get();
+            JWTClaimsSet claims = jwt.getJWTClaimsSet();
+            String familyId = claims.getStringClaim(JwtManager.CLAIM_FAMILY);
+            // Redeemed refresh tokens and revoked families are no longer active; a database
+            // failure here propagates, the token itself is not at fault
+            if (claims.getJWTID() != null && revocationStore.isRevoked(claims.getJWTID())
+                    || familyId != null && revocationStore.isRevoked(familyId)) {
+                return inactive();
+            }
+
+            JsonObjectBuilder builder = Json.createObjectBuilder()
+                    .add("active", true)
+                    .add("token_type", familyId != null ? "refresh_token" : "Bearer")
+                    .add("sub", claims.getSubject())
+                    .add("exp", claims.getExpirationTime().toInstant().getEpochSecond());
+            addIfPresent(builder, "client_id", jwtManager.getTenant(jwt));
+            addIfPresent(builder, "scope", jwtManager.getScopes(jwt));
+            if (familyId == null) {
+                // Compact access tokens only carry the role mask: resource servers get the names
+                builder.add("roles", Json.createArrayBuilder(List.of(Role.ids(jwtManager.getRoles(jwt)))));
+            }
+            addIfPresent(builder, "iss", claims.getIssuer());
+            addIfPresent(builder, "jti", claims.getJWTID());
+            if (claims.getIssueTime() != null) {
+                builder.add("iat", claims.getIssueTime().toInstant().getEpochSecond());
+            }
+            if (claims.getAudience() != null && !claims.getAudience().isEmpty()) {
+                builder.add("aud", String.join(" ", claims.getAudience()));
+            }
+            return builder.build();
+        } catch (ParseException e) {
+            // Claims of the wrong type
+            return inactive();
+        }
+    }
+
+    private Future<JsonObject> submit(ExecutorCompletionService<JsonObject> completion, JsonArray tokens, int index) {
+        String token = tokens.getString(index);
+        return completion.submit(() -> {
+            try {
+                return Json.createObjectBuilder(introspect(token)).add("index", index).build();
+            } catch (PersistenceException | TransactionalException e) {
+                // Only this token is undecided: report it and keep streaming the others
+                return Json.createObjectBuilder().add("index", index).add("error", "server_error").build();
+            }
+        });
+    }
+
+    private static Future<JsonObject> take(ExecutorCompletionService<JsonObject> completion) {
+        try {
+            return completion.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static JsonObject get(Future<JsonObject> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private Optional<Tenant> authenticateClient(String authorization, String clientId, String clientSecret) {
+        if (authorization != null && authorization.regionMatches(true, 0, "Basic ", 0, 6)) {
+            try {
+                String credentials = new String(Base64.getDecoder().decode(authorization.substring(6).trim()),
+                        StandardCharsets.UTF_8);
+                int colon = credentials.indexOf(':');
+                if (colon < 0) {
+                    return Optional.empty();
+                }
+                clientId = credentials.substring(0, colon);
+                clientSecret = credentials.substring(colon + 1);
+            } catch (IllegalArgumentException e) {
+                return Optional.empty();
+            }
+        }
+        if (clientId == null || clientSecret == null) {
+            return Optional.empty();
+        }
+        String secret = clientSecret;
+        return tenantRegistry.findByClientId(clientId)
+                .filter(tenant -> MessageDigest.isEqual(
+                        tenant.getClientSecret().getBytes(StandardCharsets.UTF_8),
+                        secret.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static void addIfPresent(JsonObjectBuilder builder, String name, String value) {
+        if (value != null && !value.isEmpty()) {
+            builder.add(name, value);
+        }
+    }
+
+    private static JsonObject inactive() {
+        return Json.createObjectBuilder().add("active", false).build();
+    }
+
+    private Response unauthorized() {
+        JsonObject errorResponse = Json.createObjectBuilder()
+                .add("error", "invalid_client")
+                .add("error_description", "Client authentication failed")
+                .build();
+        return Response.status(Response.Status.UNAUTHORIZED)
+                .header(HttpHeaders.WWW_AUTHENTICATE, "Basic realm=\"iam\"")
+                .entity(errorResponse).build();
+    }
+
+    private Response responseError(String error, String errorDescription) {
+        return responseError(error, errorDescription, Response.Status.BAD_REQUEST);
+    }
+
+    private Response responseError(String error, String errorDescription, Response.Status status) {
+        JsonObject errorResponse = Json.createObjectBuilder()
+                .add("error", error)
+                .add("error_description", errorDescription)
+                .build();
+        return Response.status(status).entity(errorResponse).build();
+    }
+}
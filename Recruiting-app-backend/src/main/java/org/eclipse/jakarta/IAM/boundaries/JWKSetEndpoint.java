@@ -0,0 +1,42 @@
+package org.eclipse.jakarta.IAM.boundaries;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.CacheControl;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
+import jakarta.ws.rs.core.Response;
+import org.eclipse.jakarta.IAM.security.JwtManager;
+import org.eclipse.jakarta.IAM.security.PublicKeySet;
+
+@Path("/.well-known/jwks.json")
+@ApplicationScoped
+public class JWKSetEndpoint {
+
+    @Inject
+    private JwtManager jwtManager;
+
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response getPublicKeySet(@Context Request request) {
+        // Serialized once per key ring change; clients revalidate with If-None-Match
+        PublicKeySet keySet = jwtManager.getPublicKeySet();
+        EntityTag etag = new EntityTag(keySet.etag());
+        CacheControl cacheControl = new CacheControl();
+        cacheControl.setMaxAge((int) jwtManager.getPublicKeySetMaxAge());
+
+        Response.ResponseBuilder notModified = request.evaluatePreconditions(etag);
+        if (notModified != null) {
+            return notModified.tag(etag).cacheControl(cacheControl).build();
+        }
+        return Response.ok(keySet.json(), MediaType.APPLICATION_JSON_TYPE)
+                .tag(etag)
+                .cacheControl(cacheControl)
+                .build();
+    }
+}
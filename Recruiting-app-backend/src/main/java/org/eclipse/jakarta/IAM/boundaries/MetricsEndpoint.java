@@ -0,0 +1,61 @@
+package org.eclipse.jakarta.IAM.boundaries;
+
+import com.nimbusds.jwt.JWT;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HeaderParam;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import org.eclipse.jakarta.IAM.controllers.IAMMetrics;
+import org.eclipse.jakarta.IAM.controllers.Role;
+import org.eclipse.jakarta.IAM.security.JwtManager;
+
+import java.text.ParseException;
+import java.util.Optional;
+
+/**
+ * Operational counters and gauges of this node. They reveal login failures,
+ * throttling and capacity, so callers need an access token of this IAM
+ * carrying the ADMIN role.
+ */
+@Path("/metrics")
+@ApplicationScoped
+public class MetricsEndpoint {
+
+    @Inject
+    private IAMMetrics metrics;
+
+    @Inject
+    private JwtManager jwtManager;
+
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response getMetrics(@HeaderParam(HttpHeaders.AUTHORIZATION) String authorization) {
+        if (authorization == null || !authorization.regionMatches(true, 0, "Bearer ", 0, 7)) {
+            return Response.status(Response.Status.UNAUTHORIZED)
+                    .header(HttpHeaders.WWW_AUTHENTICATE, "Bearer realm=\"iam\"")
+                    .build();
+        }
+        if (!isAdmin(authorization.substring(7).trim())) {
+            return Response.status(Response.Status.FORBIDDEN).build();
+        }
+        return Response.ok(metrics.snapshot())
+                .header("Cache-Control", "no-store")
+                .build();
+    }
+
+    private boolean isAdmin(String token) {
+        try {
+            Optional<JWT> jwt = jwtManager.validateJWT(token);
+            // Refresh tokens carry no roles and never pass
+            return jwt.isPresent() && Role.ADMIN.isIn(jwtManager.getRoles(jwt.get()));
+        } catch (ParseException | RuntimeException e) {
+            // Malformed tokens and unknown keys
+            return false;
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package org.eclipse.jakarta.IAM.boundaries;
 
 import jakarta.inject.Inject;
+import jakarta.persistence.PersistenceException;
+import jakarta.transaction.TransactionalException;
 import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.FormParam;
 import jakarta.ws.rs.POST;
@@ -9,13 +11,18 @@ import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import org.eclipse.jakarta.IAM.controllers.IAMRepository;
+import org.eclipse.jakarta.IAM.controllers.ScopeRegistry;
+import org.eclipse.jakarta.IAM.controllers.TenantRegistry;
 import org.eclipse.jakarta.IAM.entities.Identity;
 import org.eclipse.jakarta.IAM.entities.Tenant;
 import org.eclipse.jakarta.IAM.security.AuthorizationCode;
 import org.eclipse.jakarta.IAM.security.JwtManager;
+import org.eclipse.jakarta.IAM.security.RedeemedCodeStore;
+import org.eclipse.jakarta.IAM.security.RevocationStore;
 
 import jakarta.json.Json;
 import jakarta.json.JsonObject;
+import java.time.Instant;
 import java.util.Optional;
 import java.util.Set;
 
@@ -27,9 +34,21 @@ public class TokenEndpoint {
     @Inject
     private IAMRepository iamRepository;
 
+    @Inject
+    private TenantRegistry tenantRegistry;
+
+    @Inject
+    private ScopeRegistry scopeRegistry;
+
     @Inject
     private JwtManager jwtManager;
 
+    @Inject
+    private RevocationStore revocationStore;
+
+    @Inject
+    private RedeemedCodeStore redeemedCodes;
+
     @POST
     @Produces(MediaType.APPLICATION_JSON)
     @Consumes(MediaType.APPLICATION_FORM_URLENCODED)
@@ -49,9 +68,19 @@ public class TokenEndpoint {
                     "grant_type should be one of: " + supportedGrantTypes, Response.Status.BAD_REQUEST);
         }
 
+        // Replayed codes are turned away before any lookup or decryption
+        String codeId = null;
+        if ("authorization_code".equals(grantType)) {
+            codeId = AuthorizationCode.idOf(authCode);
+            if (codeId == null || redeemedCodes.isRedeemed(codeId)) {
+                return responseError("invalid_grant", "Invalid or already redeemed authorization code",
+                        Response.Status.BAD_REQUEST);
+            }
+        }
+
         try {
             // Validate client
-            Optional<Tenant> tenantOpt = iamRepository.findTenantByClientId(clientId);
+            Optional<Tenant> tenantOpt = tenantRegistry.findByClientId(clientId);
             if (tenantOpt.isEmpty()) {
                 return responseError("invalid_client", "Unknown client", Response.Status.UNAUTHORIZED);
             }
@@ -73,6 +102,12 @@ public class TokenEndpoint {
                 return responseError("invalid_grant", "Authorization code has expired", Response.Status.BAD_REQUEST);
             }
 
+            // One redemption per code, a concurrent exchange of the same code loses here
+            if (!redeemedCodes.markRedeemed(codeId, decoded.expirationDate())) {
+                return responseError("invalid_grant", "Invalid or already redeemed authorization code",
+                        Response.Status.BAD_REQUEST);
+            }
+
             // Find identity
             Optional<Identity> identityOpt = iamRepository.findIdentityByUsername(decoded.identityUsername());
             if (identityOpt.isEmpty()) {
@@ -80,22 +115,27 @@ public class TokenEndpoint {
             }
             Identity identity = identityOpt.get();
 
+            // Only the requested scopes the identity can provide are granted, intersected as bit masks
+            long providedScopes = identity.getProvidedScopesMask() != null
+                    ? identity.getProvidedScopesMask() : scopeRegistry.mask(identity.getProvidedScopes());
+            String grantedScopes = scopeRegistry.names(scopeRegistry.mask(decoded.approvedScopes()) & providedScopes);
+
             // Generate real JWT tokens
             String accessToken = jwtManager.generateAccessToken(
                     tenant.getClientId(),
                     identity.getUsername(),
-                    decoded.approvedScopes(),
+                    grantedScopes,
                     new String[] { "USER" });
             String newRefreshToken = jwtManager.generateRefreshToken(
                     tenant.getClientId(),
                     identity.getUsername(),
-                    decoded.approvedScopes());
+                    grantedScopes);
 
             JsonObject response = Json.createObjectBuilder()
                     .add("token_type", "Bearer")
                     .add("access_token", accessToken)
                     .add("expires_in", 3600)
-                    .add("scope", decoded.approvedScopes())
+                    .add("scope", grantedScopes)
                     .add("refresh_token", newRefreshToken)
                     .build();
 
@@ -118,9 +158,23 @@ public class TokenEndpoint {
                 return responseError("invalid_grant", "Invalid or expired refresh token", Response.Status.BAD_REQUEST);
             }
 
-            var jwt = jwtOpt.get();
-            String subject = jwt.getJWTClaimsSet().getSubject();
-            String scope = (String) jwt.getJWTClaimsSet().getClaim("scope");
+            var claims = jwtOpt.get().getJWTClaimsSet();
+            String subject = claims.getSubject();
+            String scope = claims.getStringClaim("scope");
+            String jti = claims.getJWTID();
+            String familyId = claims.getStringClaim(JwtManager.CLAIM_FAMILY);
+            if (jti == null || familyId == null || !tenant.getClientId().equals(claims.getStringClaim("tenant_id"))) {
+                return responseError("invalid_grant", "Invalid or expired refresh token", Response.Status.BAD_REQUEST);
+            }
+
+            // Rotation: a refresh token is redeemed once, a second redemption revokes its whole family
+            if (revocationStore.isRevoked(familyId)) {
+                return responseError("invalid_grant", "Refresh token revoked", Response.Status.BAD_REQUEST);
+            }
+            if (!revocationStore.revoke(jti, claims.getExpirationTime().toInstant().getEpochSecond())) {
+                revocationStore.revoke(familyId, Instant.now().getEpochSecond() + jwtManager.getRefreshTokenLifetime());
+                return responseError("invalid_grant", "Refresh token reuse detected", Response.Status.BAD_REQUEST);
+            }
 
             // Generate new tokens
             String newAccessToken = jwtManager.generateAccessToken(
@@ -131,7 +185,8 @@ public class TokenEndpoint {
             String newRefreshToken = jwtManager.generateRefreshToken(
                     tenant.getClientId(),
                     subject,
-                    scope);
+                    scope,
+                    familyId);
 
             JsonObject response = Json.createObjectBuilder()
                     .add("token_type", "Bearer")
@@ -145,6 +200,10 @@ public class TokenEndpoint {
                     .header("Cache-Control", "no-store")
                     .header("Pragma", "no-cache")
                     .build();
+        } catch (PersistenceException | TransactionalException e) {
+            // The revocation list could not be read or written: the refresh token is not at fault
+            return responseError("server_error", "Unable to process token request: " + e.getMessage(),
+                    Response.Status.INTERNAL_SERVER_ERROR);
         } catch (Exception e) {
             return responseError("invalid_grant", "Failed to refresh token", Response.Status.BAD_REQUEST);
         }
@@ -0,0 +1,54 @@
+package org.eclipse.jakarta.IAM.controllers;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.ejb.DependsOn;
+import jakarta.ejb.Singleton;
+import jakarta.ejb.Startup;
+import jakarta.inject.Inject;
+import org.eclipse.jakarta.IAM.security.JwtManager;
+import org.eclipse.jakarta.IAM.security.PasswordHashingService;
+import org.eclipse.jakarta.IAM.security.RevocationStore;
+
+/**
+ * Starts, at deployment and once {@link SchemaMigrator} has brought the schema up
+ * to date, the application-scoped beans whose startup is expensive, so that the
+ * first request does not pay for it: the registries, revocation store and cache
+ * statistics load state from the database, the signing keys and authorization
+ * code key are loaded or generated, and Argon2 is calibrated. These beans are not
+ * started from anywhere else: whatever order the container starts the
+ * application in, they never read the database before the migrations have run.
+ */
+@Singleton
+@Startup
+@DependsOn("SchemaMigrator")
+public class ApplicationStartup {
+
+    @Inject
+    private ScopeRegistry scopeRegistry;
+
+    @Inject
+    private TenantRegistry tenantRegistry;
+
+    @Inject
+    private RevocationStore revocationStore;
+
+    @Inject
+    private PersistenceStatistics persistenceStatistics;
+
+    @Inject
+    private JwtManager jwtManager;
+
+    @Inject
+    private PasswordHashingService passwordHashingService;
+
+    @PostConstruct
+    public void start() {
+        // Any call on a client proxy creates the instance, which runs its @PostConstruct
+        scopeRegistry.toString();
+        tenantRegistry.toString();
+        revocationStore.toString();
+        persistenceStatistics.toString();
+        jwtManager.toString();
+        passwordHashingService.toString();
+    }
+}
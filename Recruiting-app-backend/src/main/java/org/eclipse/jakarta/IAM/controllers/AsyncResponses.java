@@ -0,0 +1,27 @@
+package org.eclipse.jakarta.IAM.controllers;
+
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.Response;
+
+import java.util.concurrent.CompletionException;
+
+/**
+ * Completes the asynchronous endpoints that failed. A stage fails with the
+ * exception wrapped in a {@link CompletionException}, so the response an
+ * endpoint meant to send (e.g. 429 from the login throttle, 503 from the
+ * hashing pool) is unwrapped here; anything else is a 500.
+ */
+public final class AsyncResponses {
+
+    private AsyncResponses() {
+    }
+
+    // ===== For CompletionStage.exceptionally =====
+    public static Response failure(Throwable throwable) {
+        Throwable cause = throwable instanceof CompletionException ? throwable.getCause() : throwable;
+        if (cause instanceof WebApplicationException wae) {
+            return wae.getResponse();
+        }
+        return Response.serverError().build();
+    }
+}
@@ -7,10 +7,8 @@ import jakarta.enterprise.inject.Any;
 import jakarta.inject.Inject;
 import jakarta.interceptor.Interceptor;
 import jakarta.ws.rs.NotAuthorizedException;
-import org.eclipse.jakarta.IAM.entities.Grant;
 
 import java.io.Serializable;
-import java.util.Optional;
 
 @Decorator
 @Priority(Interceptor.Priority.APPLICATION)
@@ -21,13 +19,15 @@ public abstract class AuthorizationDecorator implements Serializable {
     @Delegate
     private IAMRepository delegate;
 
+    @Inject
+    private GrantDecisionCache grantDecisions;
+
     /**
      * Ensures that the currently authenticated identity
      * has an active grant for the given tenant.
      */
     protected void authorizeGrantAccess(Short tenantId, Long identityId) {
-        Optional<Grant> grant = delegate.findGrant(tenantId, identityId);
-        if (grant.isEmpty()) {
+        if (grantDecisions.findApprovedScopesMask(tenantId, identityId).isEmpty()) {
             throw new NotAuthorizedException("Access denied: no valid grant found");
         }
     }
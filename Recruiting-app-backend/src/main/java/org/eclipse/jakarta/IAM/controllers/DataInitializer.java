@@ -1,6 +1,7 @@
 package org.eclipse.jakarta.IAM.controllers;
 
 import jakarta.annotation.PostConstruct;
+import jakarta.ejb.DependsOn;
 import jakarta.ejb.Singleton;
 import jakarta.ejb.Startup;
 import jakarta.inject.Inject;
@@ -17,6 +18,7 @@ import java.util.logging.Logger;
  */
 @Singleton
 @Startup
+@DependsOn("SchemaMigrator")
 public class DataInitializer {
 
     private static final Logger LOGGER = Logger.getLogger(DataInitializer.class.getName());
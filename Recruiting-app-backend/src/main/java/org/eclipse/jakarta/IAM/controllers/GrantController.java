@@ -1,6 +1,7 @@
 package org.eclipse.jakarta.IAM.controllers;
 
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 import org.eclipse.jakarta.IAM.entities.Grant;
@@ -8,7 +9,11 @@ import org.eclipse.jakarta.IAM.entities.Identity;
 import org.eclipse.jakarta.IAM.entities.Tenant;
 
 import java.time.LocalDateTime;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalLong;
 
 /**
  * Controller responsible for managing OAuth2-style grants between tenants and
@@ -33,6 +38,19 @@ public class GrantController {
     @Inject
     private IAMRepository iamRepository;
 
+    @Inject
+    private TenantRegistry tenantRegistry;
+
+    @Inject
+    private GrantDecisionCache grantDecisions;
+
+    @Inject
+    private ScopeRegistry scopeRegistry;
+
+    // Drops the cached decision once the transaction commits
+    @Inject
+    private Event<GrantDecisionCache.GrantChanged> grantChanged;
+
     /**
      * Issues a new grant from a candidate (identity) to a tenant (client
      * application).
@@ -49,8 +67,8 @@ public class GrantController {
      *                                  found
      */
     public Grant issueGrant(Short tenantId, Long identityId, String scopes) {
-        // Retrieve the tenant and identity from the database
-        Optional<Tenant> tenantOpt = iamRepository.findTenantById(tenantId);
+        // Retrieve the tenant from the registry and the identity from the database
+        Optional<Tenant> tenantOpt = tenantRegistry.findById(tenantId);
         Optional<Identity> identityOpt = iamRepository.findIdentityById(identityId);
 
         // Validate that both entities exist before proceeding
@@ -69,7 +87,9 @@ public class GrantController {
         grant.setIssuanceDateTime(LocalDateTime.now()); // Record when the grant was issued
 
         // Persist and return the grant
-        return iamRepository.save(grant);
+        Grant saved = iamRepository.save(grant);
+        grantChanged.fire(new GrantDecisionCache.GrantChanged(tenantId, identityId));
+        return saved;
     }
 
     /**
@@ -87,7 +107,10 @@ public class GrantController {
         // Look up the existing grant by tenant and identity IDs
         Optional<Grant> grantOpt = iamRepository.findGrant(tenantId, identityId);
         // If found, delete it from the database
-        grantOpt.ifPresent(grant -> iamRepository.deleteGrant(grant));
+        grantOpt.ifPresent(grant -> {
+            iamRepository.deleteGrant(grant);
+            grantChanged.fire(new GrantDecisionCache.GrantChanged(tenantId, identityId));
+        });
     }
 
     /**
@@ -107,38 +130,56 @@ public class GrantController {
      *         otherwise
      */
     public boolean checkGrant(Short tenantId, Long identityId, String requiredScopes) {
-        // Attempt to find an existing grant between the tenant and identity
-        Optional<Grant> grantOpt = iamRepository.findGrant(tenantId, identityId);
+        // Attempt to find an existing grant between the tenant and identity, cached after the first check
+        OptionalLong approvedScopes = grantDecisions.findApprovedScopesMask(tenantId, identityId);
 
         // If no grant exists, access is denied
-        if (grantOpt.isEmpty())
+        if (approvedScopes.isEmpty())
             return false;
 
-        Grant grant = grantOpt.get();
-
         // If no specific scopes are required, the existence of the grant is sufficient
         if (requiredScopes == null || requiredScopes.isEmpty())
             return true;
 
-        // Verify that all required scopes are included in the approved scopes
-        // Scopes are space-separated (per OAuth2 spec)
-        String[] required = requiredScopes.split(" ");
-        String[] approved = grant.getApprovedScopes().split(" ");
-
-        // Check each required scope against the approved scopes
-        for (String r : required) {
-            boolean found = false;
-            for (String a : approved) {
-                if (r.equals(a)) {
-                    found = true;
-                    break;
-                }
-            }
-            // If any required scope is missing, return false
-            if (!found)
-                return false;
+        // Verify that all required scopes are included in the approved scopes, as bit masks;
+        // a scope that was never registered cannot have been approved
+        OptionalLong required = scopeRegistry.requiredMask(requiredScopes);
+        return required.isPresent() && ScopeRegistry.contains(approvedScopes.getAsLong(), required.getAsLong());
+    }
+
+    /**
+     * Checks, for many identities at once, whether they granted the tenant the
+     * required scopes; meant for list views such as candidate lists and pipelines.
+     * 
+     * Decisions already cached are reused and the others are resolved with one
+     * set-based query per chunk of identities, instead of one query per identity.
+     * 
+     * @param tenantId       ID of the tenant (client application) to check
+     * @param identityIds    IDs of the identities (users) whose grants are verified
+     * @param requiredScopes Space-separated string of scopes that must be present
+     *                       in each grant.
+     *                       If null or empty, only checks for grant existence.
+     * @return a bit set where bit {@code i} is set when the grant of
+     *         {@code identityIds.get(i)} exists and includes all required scopes
+     */
+    public BitSet checkGrants(Short tenantId, List<Long> identityIds, String requiredScopes) {
+        BitSet granted = new BitSet(identityIds.size());
+
+        // A scope that was never registered cannot have been approved by anyone
+        long required = 0L;
+        if (requiredScopes != null && !requiredScopes.isEmpty()) {
+            OptionalLong requiredMask = scopeRegistry.requiredMask(requiredScopes);
+            if (requiredMask.isEmpty())
+                return granted;
+            required = requiredMask.getAsLong();
+        }
+
+        Map<Long, Long> approvedScopes = grantDecisions.findApprovedScopesMasks(tenantId, identityIds);
+        for (int i = 0; i < identityIds.size(); i++) {
+            Long approved = approvedScopes.get(identityIds.get(i));
+            if (approved != null && ScopeRegistry.contains(approved, required))
+                granted.set(i);
         }
-        // All required scopes are present
-        return true;
+        return granted;
     }
 }
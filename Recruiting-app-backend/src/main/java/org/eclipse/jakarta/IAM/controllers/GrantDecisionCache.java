@@ -0,0 +1,157 @@
+package org.eclipse.jakarta.IAM.controllers;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import org.eclipse.jakarta.IAM.entities.Grant;
+import org.eclipse.jakarta.IAM.entities.GrantPK;
+import org.eclipse.jakarta.IAM.security.ExpiringMap;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Grant decisions per (tenant, identity), as the mask of the approved scopes
+ * (see {@link ScopeRegistry}), filled on first read so that authorization
+ * checks do not query the {@code issued_grants} table.
+ *
+ * Issuing or revoking a grant fires a {@link GrantChanged} event that drops the
+ * entry once the transaction commits. Missing grants are cached too, for
+ * {@code iam.grants.cache.negative-ttl-seconds} only; existing grants for
+ * {@code iam.grants.cache.ttl-seconds}, which bounds how long a change made on
+ * another node goes unnoticed. When the cache is full, decisions are simply
+ * loaded again instead of displacing cached ones.
+ */
+@ApplicationScoped
+public class GrantDecisionCache {
+
+    // ===== Sizing and expiry (system properties) =====
+    private static final int MAX_ENTRIES = Integer.getInteger("iam.grants.cache.max-entries", 100_000);
+    private static final long TTL_MILLIS = Long.getLong("iam.grants.cache.ttl-seconds", 300L) * 1000L;
+    private static final long NEGATIVE_TTL_MILLIS =
+            Long.getLong("iam.grants.cache.negative-ttl-seconds", 10L) * 1000L;
+
+    /** Fired when the grant of an identity to a tenant is issued or revoked. */
+    public record GrantChanged(Short tenantId, Long identityId) {
+    }
+
+    private record Decision(boolean granted, long approvedScopesMask) {
+
+        OptionalLong toOptional() {
+            return granted ? OptionalLong.of(approvedScopesMask) : OptionalLong.empty();
+        }
+    }
+
+    @Inject
+    private IAMRepository iamRepository;
+
+    @Inject
+    private ScopeRegistry scopeRegistry;
+
+    @Inject
+    private IAMMetrics metrics;
+
+    private final ExpiringMap<GrantPK, Decision> decisions = new ExpiringMap<>(MAX_ENTRIES);
+    // Bumped by every invalidation, so that a load racing with a change is not kept
+    private final AtomicLong generation = new AtomicLong();
+    private LongAdder hits;
+    private LongAdder misses;
+
+    @PostConstruct
+    public void start() {
+        hits = metrics.counter("iam.grants.cache.hits");
+        misses = metrics.counter("iam.grants.cache.misses");
+        metrics.gauge("iam.grants.cache.size", decisions::size);
+    }
+
+    /**
+     * @return the mask of the scopes approved by the identity for the tenant, empty when there is no grant
+     */
+    public OptionalLong findApprovedScopesMask(Short tenantId, Long identityId) {
+        GrantPK key = new GrantPK(tenantId, identityId);
+        long now = System.currentTimeMillis();
+        Decision decision = decisions.get(key, now);
+        if (decision != null) {
+            hits.increment();
+            return decision.toOptional();
+        }
+        misses.increment();
+
+        long loadedGeneration = generation.get();
+        Optional<Grant> grant = iamRepository.findGrant(tenantId, identityId);
+        Decision loaded = grant.isPresent()
+                ? new Decision(true, approvedScopesMask(grant.get()))
+                : new Decision(false, 0L);
+        put(key, loaded, now);
+        // An invalidation after the query may have run before the put: drop what was loaded
+        if (generation.get() != loadedGeneration) {
+            decisions.remove(key, loaded);
+        }
+        return loaded.toOptional();
+    }
+
+    /**
+     * Batch variant for list views: cached decisions are used as they are and all
+     * the others are loaded in a single set-based query, then cached.
+     *
+     * @return identity ID to approved scopes mask, identities without a grant being absent
+     */
+    public Map<Long, Long> findApprovedScopesMasks(Short tenantId, Collection<Long> identityIds) {
+        long now = System.currentTimeMillis();
+        Map<Long, Long> masks = new HashMap<>();
+        Set<Long> missing = new LinkedHashSet<>();
+        for (Long identityId : identityIds) {
+            Decision decision = decisions.get(new GrantPK(tenantId, identityId), now);
+            if (decision != null) {
+                hits.increment();
+                if (decision.granted()) masks.put(identityId, decision.approvedScopesMask());
+            } else {
+                missing.add(identityId);
+            }
+        }
+        if (missing.isEmpty()) {
+            return masks;
+        }
+        misses.add(missing.size());
+
+        long loadedGeneration = generation.get();
+        Map<Long, Long> loadedMasks = iamRepository.findApprovedScopesMasks(tenantId, missing);
+        for (Long identityId : missing) {
+            GrantPK key = new GrantPK(tenantId, identityId);
+            Long mask = loadedMasks.get(identityId);
+            Decision loaded = mask != null ? new Decision(true, mask) : new Decision(false, 0L);
+            put(key, loaded, now);
+            if (generation.get() != loadedGeneration) {
+                decisions.remove(key, loaded);
+            }
+        }
+        masks.putAll(loadedMasks);
+        return masks;
+    }
+
+    // ===== Invalidation, once the issuing or revoking transaction has committed =====
+    void onGrantChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) GrantChanged event) {
+        generation.incrementAndGet();
+        decisions.remove(new GrantPK(event.tenantId(), event.identityId()));
+    }
+
+    // ===== Internal helpers =====
+    private long approvedScopesMask(Grant grant) {
+        // Rows written before the mask column existed are backfilled at startup
+        return grant.getApprovedScopesMask() != null
+                ? grant.getApprovedScopesMask() : scopeRegistry.mask(grant.getApprovedScopes());
+    }
+
+    private void put(GrantPK key, Decision decision, long now) {
+        decisions.put(key, decision, now + (decision.granted() ? TTL_MILLIS : NEGATIVE_TTL_MILLIS), now);
+    }
+}
@@ -1,6 +1,7 @@
 package org.eclipse.jakarta.IAM.controllers;
 
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import jakarta.security.enterprise.credential.Credential;
@@ -8,8 +9,10 @@ import jakarta.security.enterprise.credential.UsernamePasswordCredential;
 import jakarta.security.enterprise.identitystore.CredentialValidationResult;
 import jakarta.security.enterprise.identitystore.IdentityStore;
 import jakarta.transaction.Transactional;
+import jakarta.ws.rs.WebApplicationException;
 import org.eclipse.jakarta.IAM.entities.Identity;
-import org.eclipse.jakarta.IAM.security.Argon2Utility;
+import org.eclipse.jakarta.IAM.security.LoginThrottle;
+import org.eclipse.jakarta.IAM.security.PasswordHashingService;
 
 import java.util.Collections;
 import java.util.Objects;
@@ -23,6 +26,12 @@ public class IAMIdentityStore implements IdentityStore {
     @PersistenceContext(unitName = "iam")
     private EntityManager entityManager;
 
+    @Inject
+    private PasswordHashingService passwordHashingService;
+
+    @Inject
+    private LoginThrottle loginThrottle;
+
     @Override
     public CredentialValidationResult validate(Credential credential) {
         if (!(credential instanceof UsernamePasswordCredential upc)) {
@@ -33,6 +42,8 @@ public class IAMIdentityStore implements IdentityStore {
 
     private CredentialValidationResult validate(UsernamePasswordCredential upc) {
         try {
+            loginThrottle.check(upc.getCaller(), null);
+
             Identity identity = entityManager.createQuery(
                     "SELECT i FROM Identity i WHERE i.username = :username", Identity.class)
                     .setParameter("username", upc.getCaller())
@@ -41,14 +52,19 @@ public class IAMIdentityStore implements IdentityStore {
             Objects.requireNonNull(identity, "Identity should not be null");
 
             // Verify password with Argon2
-            if (Argon2Utility.check(identity.getPassword(), upc.getPassword().getValue())) {
+            if (passwordHashingService.verify(identity, upc.getPassword().getValue())) {
                 // For simplicity, everyone gets a default "USER" group
                 Set<String> groups = Collections.singleton("USER");
                 return new CredentialValidationResult(upc.getCaller(), groups);
             }
+            loginThrottle.recordFailure(upc.getCaller(), null);
             return CredentialValidationResult.INVALID_RESULT;
 
+        } catch (WebApplicationException e) {
+            // Throttled, or hashing capacity exhausted: the credential was not checked at all
+            return CredentialValidationResult.NOT_VALIDATED_RESULT;
         } catch (Exception e) {
+            loginThrottle.recordFailure(upc.getCaller(), null);
             return CredentialValidationResult.INVALID_RESULT;
         }
     }
@@ -78,6 +94,6 @@ public class IAMIdentityStore implements IdentityStore {
             return false;
 
         Identity identity = identityOpt.get();
-        return Argon2Utility.check(identity.getPassword(), rawPassword.toCharArray());
+        return passwordHashingService.verify(identity, rawPassword.toCharArray());
     }
 }
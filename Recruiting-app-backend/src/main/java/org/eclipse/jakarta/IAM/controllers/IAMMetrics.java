@@ -0,0 +1,50 @@
+package org.eclipse.jakarta.IAM.controllers;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.json.Json;
+import jakarta.json.JsonObject;
+import jakarta.json.JsonObjectBuilder;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * In-process registry of the counters and gauges published by the IAM components.
+ * Counters are monotonic, gauges are sampled when a snapshot is taken.
+ */
+@ApplicationScoped
+public class IAMMetrics {
+
+    private final ConcurrentMap<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Supplier<? extends Number>> gauges = new ConcurrentHashMap<>();
+
+    // ===== Registration =====
+    public LongAdder counter(String name) {
+        return counters.computeIfAbsent(name, n -> new LongAdder());
+    }
+
+    public void gauge(String name, Supplier<? extends Number> supplier) {
+        gauges.put(name, supplier);
+    }
+
+    // ===== Export =====
+    public JsonObject snapshot() {
+        Map<String, Number> values = new TreeMap<>();
+        counters.forEach((name, counter) -> values.put(name, counter.sum()));
+        gauges.forEach((name, gauge) -> values.put(name, gauge.get()));
+
+        JsonObjectBuilder builder = Json.createObjectBuilder();
+        values.forEach((name, value) -> {
+            if (value instanceof Double || value instanceof Float) {
+                builder.add(name, value.doubleValue());
+            } else {
+                builder.add(name, value.longValue());
+            }
+        });
+        return builder.build();
+    }
+}
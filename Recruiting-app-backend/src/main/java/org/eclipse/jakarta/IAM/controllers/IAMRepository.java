@@ -1,6 +1,8 @@
 package org.eclipse.jakarta.IAM.controllers;
 
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.NoResultException;
 import jakarta.persistence.PersistenceContext;
@@ -8,22 +10,41 @@ import jakarta.transaction.Transactional;
 import org.eclipse.jakarta.IAM.entities.Grant;
 import org.eclipse.jakarta.IAM.entities.GrantPK;
 import org.eclipse.jakarta.IAM.entities.Identity;
+import org.eclipse.jakarta.IAM.entities.RevokedToken;
+import org.eclipse.jakarta.IAM.entities.Scope;
 import org.eclipse.jakarta.IAM.entities.Tenant;
+import org.hibernate.jpa.HibernateHints;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.ToLongFunction;
 
 @ApplicationScoped
 public class IAMRepository {
 
+    // Bind parameters per IN list, well under the limits of the usual databases
+    private static final int IN_CLAUSE_CHUNK = 500;
+
     @PersistenceContext(unitName = "iam")
     private EntityManager entityManager;
 
+    @Inject
+    private Event<TenantRegistry.TenantSaved> tenantSaved;
+
+    @Inject
+    private ScopeRegistry scopeRegistry;
+
     // ===== Tenant =====
     public Optional<Tenant> findTenantByName(String name) {
         try {
             Tenant tenant = entityManager.createQuery(
                     "SELECT t FROM Tenant t WHERE t.name = :name",
                     Tenant.class).setParameter("name", name)
+                    .setHint(HibernateHints.HINT_CACHEABLE, true)
                     .getSingleResult();
             return Optional.of(tenant);
         } catch (NoResultException e) {
@@ -36,6 +57,7 @@ public class IAMRepository {
             Tenant tenant = entityManager.createQuery(
                     "SELECT t FROM Tenant t WHERE t.clientId = :clientId",
                     Tenant.class).setParameter("clientId", clientId)
+                    .setHint(HibernateHints.HINT_CACHEABLE, true)
                     .getSingleResult();
             return Optional.of(tenant);
         } catch (NoResultException e) {
@@ -47,12 +69,18 @@ public class IAMRepository {
         return Optional.ofNullable(entityManager.find(Tenant.class, id));
     }
 
+    public List<Tenant> findAllTenants() {
+        return entityManager.createQuery("SELECT t FROM Tenant t", Tenant.class)
+                .getResultList();
+    }
+
     // ===== Identity =====
     public Optional<Identity> findIdentityByUsername(String username) {
         try {
             Identity identity = entityManager.createQuery(
                     "SELECT i FROM Identity i WHERE i.username = :username",
                     Identity.class).setParameter("username", username)
+                    .setHint(HibernateHints.HINT_CACHEABLE, true)
                     .getSingleResult();
             return Optional.of(identity);
         } catch (NoResultException e) {
@@ -82,9 +110,116 @@ public class IAMRepository {
         }
     }
 
+    /**
+     * Approved scope masks of the grants to the tenant by the given identities, in
+     * one query per {@value #IN_CLAUSE_CHUNK} identities. Only the columns needed
+     * are selected, so that no tenant or identity is loaded along.
+     *
+     * @return identity ID to mask, identities without a grant being absent
+     */
+    public Map<Long, Long> findApprovedScopesMasks(Short tenantId, Collection<Long> identityIds) {
+        List<Long> ids = List.copyOf(identityIds);
+        Map<Long, Long> masks = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += IN_CLAUSE_CHUNK) {
+            List<Object[]> rows = entityManager.createQuery(
+                    "SELECT g.id.identityId, g.approvedScopesMask, g.approvedScopes FROM Grant g " +
+                            "WHERE g.id.tenantId = :tenantId " +
+                            "AND g.id.identityId IN :identityIds",
+                    Object[].class)
+                    .setParameter("tenantId", tenantId)
+                    .setParameter("identityIds", ids.subList(from, Math.min(from + IN_CLAUSE_CHUNK, ids.size())))
+                    .getResultList();
+            for (Object[] row : rows) {
+                // Rows written before the mask column existed are backfilled at startup
+                Long mask = row[1] != null ? (Long) row[1] : scopeRegistry.mask((String) row[2]);
+                masks.put((Long) row[0], mask);
+            }
+        }
+        return masks;
+    }
+
+    // ===== Revoked tokens =====
+    public boolean isRevoked(String id) {
+        return entityManager.find(RevokedToken.class, id) != null;
+    }
+
+    public List<String> findRevokedTokenIds(LocalDateTime revokedSince) {
+        return entityManager.createQuery(
+                "SELECT r.id FROM RevokedToken r WHERE r.revokedAt >= :since",
+                String.class).setParameter("since", revokedSince)
+                .getResultList();
+    }
+
+    /**
+     * Inserts the revocation unless the ID is already revoked. The primary key
+     * makes concurrent revocations of the same ID fail on all nodes but one.
+     *
+     * @return false when the ID was already revoked
+     */
+    @Transactional
+    public boolean revoke(RevokedToken token) {
+        if (entityManager.find(RevokedToken.class, token.getId()) != null) {
+            return false;
+        }
+        entityManager.persist(token);
+        entityManager.flush();
+        return true;
+    }
+
+    @Transactional
+    public int deleteRevokedTokensExpiredBefore(LocalDateTime time) {
+        return entityManager.createQuery(
+                "DELETE FROM RevokedToken r WHERE r.expiresAt < :time")
+                .setParameter("time", time)
+                .executeUpdate();
+    }
+
+    // ===== Scopes =====
+    public List<Scope> findAllScopes() {
+        return entityManager.createQuery("SELECT s FROM Scope s ORDER BY s.bit", Scope.class)
+                .getResultList();
+    }
+
+    /**
+     * Committed on its own, so that losing a race for a bit or a name against
+     * another node does not roll back the transaction that met the new scope.
+     */
+    @Transactional(Transactional.TxType.REQUIRES_NEW)
+    public void insertScope(Scope scope) {
+        entityManager.persist(scope);
+        entityManager.flush();
+    }
+
+    /**
+     * Computes the scope masks missing from rows written before the mask columns existed.
+     *
+     * @return the number of rows updated
+     */
+    @Transactional
+    public int backfillScopeMasks(ToLongFunction<String> intern) {
+        int updated = 0;
+        for (Identity identity : entityManager.createQuery(
+                "SELECT i FROM Identity i WHERE i.providedScopesMask IS NULL", Identity.class).getResultList()) {
+            identity.setProvidedScopesMask(intern.applyAsLong(identity.getProvidedScopes()));
+            updated++;
+        }
+        for (Tenant tenant : entityManager.createQuery(
+                "SELECT t FROM Tenant t WHERE t.requiredScopesMask IS NULL", Tenant.class).getResultList()) {
+            tenant.setRequiredScopesMask(intern.applyAsLong(tenant.getRequiredScopes()));
+            updated++;
+        }
+        for (Grant grant : entityManager.createQuery(
+                "SELECT g FROM Grant g WHERE g.approvedScopesMask IS NULL", Grant.class).getResultList()) {
+            grant.setApprovedScopesMask(intern.applyAsLong(grant.getApprovedScopes()));
+            updated++;
+        }
+        return updated;
+    }
+
     // ===== Save operations =====
     @Transactional
     public Identity save(Identity identity) {
+        identity.setProvidedScopesMask(scopeRegistry.intern(identity.getProvidedScopes()));
         if (identity.getId() == null) {
             entityManager.persist(identity);
             return identity;
@@ -95,16 +230,22 @@ public class IAMRepository {
 
     @Transactional
     public Tenant save(Tenant tenant) {
+        tenant.setRequiredScopesMask(scopeRegistry.intern(tenant.getRequiredScopes()));
+        Tenant saved;
         if (tenant.getId() == null) {
             entityManager.persist(tenant);
-            return tenant;
+            saved = tenant;
         } else {
-            return entityManager.merge(tenant);
+            saved = entityManager.merge(tenant);
         }
+        // Observed by the tenant registry once the transaction commits
+        tenantSaved.fire(new TenantRegistry.TenantSaved(saved.getId()));
+        return saved;
     }
 
     @Transactional
     public Grant save(Grant grant) {
+        grant.setApprovedScopesMask(scopeRegistry.intern(grant.getApprovedScopes()));
         return entityManager.merge(grant);
     }
 
@@ -0,0 +1,62 @@
+package org.eclipse.jakarta.IAM.controllers;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceUnit;
+import org.eclipse.jakarta.IAM.entities.Grant;
+import org.eclipse.jakarta.IAM.entities.Identity;
+import org.eclipse.jakarta.IAM.entities.Tenant;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * Publishes the second-level and query cache statistics of the {@code iam}
+ * persistence unit as {@code iam.jpa.*} gauges: totals, then per entity region.
+ * Hibernate only collects them with {@code hibernate.generate_statistics}.
+ */
+@ApplicationScoped
+public class PersistenceStatistics {
+
+    private static final List<Class<?>> CACHED_ENTITIES = List.of(Tenant.class, Identity.class, Grant.class);
+
+    @PersistenceUnit(unitName = "iam")
+    private EntityManagerFactory entityManagerFactory;
+
+    @Inject
+    private IAMMetrics metrics;
+
+    @PostConstruct
+    public void start() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        metrics.gauge("iam.jpa.l2.hits", statistics::getSecondLevelCacheHitCount);
+        metrics.gauge("iam.jpa.l2.misses", statistics::getSecondLevelCacheMissCount);
+        metrics.gauge("iam.jpa.l2.puts", statistics::getSecondLevelCachePutCount);
+        metrics.gauge("iam.jpa.query-cache.hits", statistics::getQueryCacheHitCount);
+        metrics.gauge("iam.jpa.query-cache.misses", statistics::getQueryCacheMissCount);
+        metrics.gauge("iam.jpa.query-cache.puts", statistics::getQueryCachePutCount);
+        metrics.gauge("iam.jpa.queries", statistics::getQueryExecutionCount);
+
+        // Entity regions are named after the entity class
+        for (Class<?> entity : CACHED_ENTITIES) {
+            String prefix = "iam.jpa.l2." + entity.getSimpleName().toLowerCase() + ".";
+            regionGauge(statistics, entity.getName(), prefix + "hits", CacheRegionStatistics::getHitCount);
+            regionGauge(statistics, entity.getName(), prefix + "misses", CacheRegionStatistics::getMissCount);
+            regionGauge(statistics, entity.getName(), prefix + "entries",
+                    CacheRegionStatistics::getElementCountInMemory);
+        }
+    }
+
+    private void regionGauge(Statistics statistics, String region, String name,
+                             ToLongFunction<CacheRegionStatistics> value) {
+        metrics.gauge(name, () -> {
+            CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(region);
+            return regionStatistics == null ? 0L : value.applyAsLong(regionStatistics);
+        });
+    }
+}
@@ -0,0 +1,76 @@
+package org.eclipse.jakarta.IAM.controllers;
+
+import java.util.Arrays;
+import java.util.logging.Logger;
+
+/**
+ * Roles carried by access tokens. Each role is a single bit, so a set of roles
+ * is one {@code long} mask and a role check is a single AND.
+ * GUEST is the empty mask and ROOT holds every bit. Names that are not roles
+ * contribute nothing to a mask, so a stray role never prevents issuing a token.
+ */
+public enum Role {
+    GUEST(0L),
+    USER(1L),
+    RECRUITER(1L << 1L),
+    ADMIN(1L << 2L),
+    ROOT(Long.MAX_VALUE);
+
+    private static final Logger LOGGER = Logger.getLogger(Role.class.getName());
+
+    private final long value;
+
+    Role(long value) {
+        this.value = value;
+    }
+
+    public long getValue() {
+        return value;
+    }
+
+    // ===== O(1) check against a role mask =====
+    public boolean isIn(long mask) {
+        return (mask & value) == value;
+    }
+
+    // ===== Conversions between role names and masks =====
+    public static Role byId(String id) {
+        Role role = find(id);
+        if (role == null) {
+            throw new IllegalArgumentException("Unknown role: " + id);
+        }
+        return role;
+    }
+
+    public static long mask(String... ids) {
+        long mask = 0L;
+        for (String id : ids) {
+            Role role = find(id);
+            if (role != null) {
+                mask |= role.value;
+            } else {
+                LOGGER.fine(() -> "Ignoring unknown role: " + id);
+            }
+        }
+        return mask;
+    }
+
+    public static String[] ids(long mask) {
+        if (mask == ROOT.value) {
+            return new String[]{ROOT.name()};
+        }
+        return Arrays.stream(values())
+                .filter(role -> role != GUEST && role != ROOT && role.isIn(mask))
+                .map(Role::name)
+                .toArray(String[]::new);
+    }
+
+    private static Role find(String id) {
+        for (Role role : values()) {
+            if (role.name().equalsIgnoreCase(id)) {
+                return role;
+            }
+        }
+        return null;
+    }
+}
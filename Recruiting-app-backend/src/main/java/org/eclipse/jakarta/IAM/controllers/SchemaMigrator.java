@@ -0,0 +1,199 @@
+package org.eclipse.jakarta.IAM.controllers;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import jakarta.ejb.Lock;
+import jakarta.ejb.LockType;
+import jakarta.ejb.Singleton;
+import jakarta.ejb.Startup;
+import jakarta.ejb.TransactionManagement;
+import jakarta.ejb.TransactionManagementType;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Brings the schema of the {@code iam} datasource up to date at startup, before
+ * any other component touches it.
+ *
+ * Migrations are the {@code db/migration/V<n>.sql} resources, applied in order
+ * from the version after the last one recorded in the {@code schema_version}
+ * table; each is applied and recorded in its own transaction, and a failing
+ * migration fails the deployment. Nodes sharing the database migrate one at a
+ * time, under a lock on the version 0 row taken on a connection of its own, so
+ * that statements committing implicitly (DDL on most databases) do not release
+ * it. Statements end with a semicolon at the end of a line, lines starting with
+ * {@code --} are comments, and the first comment of a script is its description.
+ *
+ * Startup beans reading the database declare {@code @DependsOn("SchemaMigrator")};
+ * the application-scoped ones are started by {@link ApplicationStartup}, which
+ * does, so the migrations always run before them.
+ */
+@Singleton
+@Startup
+@TransactionManagement(TransactionManagementType.BEAN)
+public class SchemaMigrator {
+
+    private static final Logger LOGGER = Logger.getLogger(SchemaMigrator.class.getName());
+
+    private static final String LOCATION = "db/migration/V";
+
+    @Resource(lookup = "java:jboss/datasources/ExampleDS")
+    private DataSource dataSource;
+
+    private volatile int version;
+
+    @PostConstruct
+    public void migrate() {
+        try (Connection connection = dataSource.getConnection();
+             Connection lock = dataSource.getConnection()) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TABLE IF NOT EXISTS schema_version (" +
+                        "version INT PRIMARY KEY, " +
+                        "description VARCHAR(255) NOT NULL, " +
+                        "installed_at TIMESTAMP(6) NOT NULL)");
+            }
+            insertLockRow(connection);
+            lock.setAutoCommit(false);
+            try {
+                // Held until all migrations are recorded: nodes starting together migrate one after the other
+                acquire(lock);
+                int version = currentVersion(connection);
+                for (Migration next = read(version + 1); next != null; next = read(version + 1)) {
+                    apply(connection, next);
+                    version = next.version();
+                }
+                this.version = version;
+                LOGGER.info("Schema at version " + version);
+            } finally {
+                lock.rollback();
+                lock.setAutoCommit(true);
+            }
+        } catch (SQLException | IOException e) {
+            throw new IllegalStateException("Schema migration failed", e);
+        }
+    }
+
+    // ===== Schema version, once migrated =====
+    @Lock(LockType.READ)
+    public int version() {
+        return version;
+    }
+
+    // ===== Internal helpers =====
+    private record Migration(int version, String description, List<String> statements) {
+    }
+
+    // ===== Version 0, the empty schema, is the row the migrating node locks =====
+    private static void insertLockRow(Connection connection) throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO schema_version (version, description, installed_at) VALUES (0, 'Empty schema', ?)")) {
+            insert.setTimestamp(1, Timestamp.from(Instant.now()));
+            insert.executeUpdate();
+        } catch (SQLException e) {
+            // SQLState class 23, integrity constraint violation: inserted before, or by another node
+            if (e.getSQLState() == null || !e.getSQLState().startsWith("23")) {
+                throw e;
+            }
+        }
+    }
+
+    private static void acquire(Connection lock) throws SQLException {
+        while (true) {
+            try (Statement statement = lock.createStatement();
+                 ResultSet result = statement.executeQuery(
+                         "SELECT version FROM schema_version WHERE version = 0 FOR UPDATE")) {
+                result.next();
+                return;
+            } catch (SQLTimeoutException e) {
+                // Another node is migrating for longer than the database waits for a lock
+                LOGGER.info("Waiting for another node to migrate the schema");
+            }
+        }
+    }
+
+    private static int currentVersion(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery("SELECT MAX(version) FROM schema_version")) {
+            return result.next() ? result.getInt(1) : 0;
+        }
+    }
+
+    private static void apply(Connection connection, Migration migration) throws SQLException {
+        long start = System.nanoTime();
+        connection.setAutoCommit(false);
+        try {
+            try (Statement statement = connection.createStatement()) {
+                for (String sql : migration.statements()) {
+                    statement.execute(sql);
+                }
+            }
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO schema_version (version, description, installed_at) VALUES (?, ?, ?)")) {
+                insert.setInt(1, migration.version());
+                insert.setString(2, migration.description());
+                insert.setTimestamp(3, Timestamp.from(Instant.now()));
+                insert.executeUpdate();
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+        LOGGER.info(() -> "Applied migration V" + migration.version() + " (" + migration.description() + ") in "
+                + (System.nanoTime() - start) / 1_000_000L + " ms");
+    }
+
+    // ===== Null when there is no such migration =====
+    private static Migration read(int version) throws IOException {
+        InputStream resource = SchemaMigrator.class.getClassLoader().getResourceAsStream(LOCATION + version + ".sql");
+        if (resource == null) {
+            return null;
+        }
+        String description = null;
+        List<String> statements = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource, StandardCharsets.UTF_8))) {
+            StringBuilder statement = new StringBuilder();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String trimmed = line.trim();
+                if (trimmed.startsWith("--")) {
+                    if (description == null) {
+                        description = trimmed.substring(2).trim();
+                    }
+                    continue;
+                }
+                if (trimmed.isEmpty()) {
+                    continue;
+                }
+                statement.append(line).append('\n');
+                if (trimmed.endsWith(";")) {
+                    statement.setLength(statement.lastIndexOf(";"));
+                    statements.add(statement.toString());
+                    statement.setLength(0);
+                }
+            }
+            if (!statement.toString().isBlank()) {
+                statements.add(statement.toString());
+            }
+        }
+        return new Migration(version, description != null ? description : "V" + version, statements);
+    }
+}
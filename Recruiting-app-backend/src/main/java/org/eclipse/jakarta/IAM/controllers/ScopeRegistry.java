@@ -0,0 +1,194 @@
+package org.eclipse.jakarta.IAM.controllers;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.PersistenceException;
+import jakarta.transaction.TransactionalException;
+import org.eclipse.jakarta.IAM.entities.Scope;
+import org.eclipse.jakarta.IAM.security.ScopeDictionary;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.logging.Logger;
+
+/**
+ * Every scope known to the system, interned to a bit position persisted in the
+ * {@code scopes} table, so that scope sets are stored and compared as masks:
+ * a grant covers the required scopes when {@code (granted & required) == required}.
+ *
+ * The scopes of {@link ScopeDictionary#CURRENT} are interned first, in order, so
+ * stored masks and the masks of compact tokens agree on those bits. Other scopes
+ * get the next free bit the first time they are saved; the table is the reference
+ * between nodes, and a node losing a race for a bit reloads it and tries again.
+ * Reading a name or a bit this node does not know yet reloads the table too, at
+ * most once per second, since another node may have interned it.
+ */
+@ApplicationScoped
+public class ScopeRegistry {
+
+    private static final Logger LOGGER = Logger.getLogger(ScopeRegistry.class.getName());
+
+    private static final int MAX_ATTEMPTS = 3;
+    // Unknown scopes reload the table, at most this often whatever the request rate
+    private static final long RELOAD_INTERVAL_MILLIS = 1000L;
+
+    // Immutable, replaced as a whole when a scope is interned
+    private record Snapshot(Map<String, Integer> bits, String[] names) {
+
+        static Snapshot of(List<Scope> scopes) {
+            Map<String, Integer> bits = new HashMap<>();
+            String[] names = new String[0];
+            for (Scope scope : scopes) {
+                int bit = scope.getBit();
+                if (bit >= names.length) {
+                    names = Arrays.copyOf(names, bit + 1);
+                }
+                names[bit] = scope.getName();
+                bits.put(scope.getName(), bit);
+            }
+            return new Snapshot(Map.copyOf(bits), names);
+        }
+
+        Snapshot with(String scope, int bit) {
+            Map<String, Integer> bits = new HashMap<>(this.bits);
+            bits.put(scope, bit);
+            String[] names = Arrays.copyOf(this.names, Math.max(this.names.length, bit + 1));
+            names[bit] = scope;
+            return new Snapshot(Map.copyOf(bits), names);
+        }
+    }
+
+    @Inject
+    private IAMRepository iamRepository;
+
+    private volatile Snapshot snapshot;
+    private long lastReloadMillis;
+
+    @PostConstruct
+    public void start() {
+        snapshot = Snapshot.of(iamRepository.findAllScopes());
+        for (String scope : ScopeDictionary.CURRENT.scopes()) {
+            internScope(scope);
+        }
+        int backfilled = iamRepository.backfillScopeMasks(this::intern);
+        if (backfilled > 0) {
+            LOGGER.info(() -> "Computed the scope masks of " + backfilled + " rows");
+        }
+    }
+
+    // ===== Write side: scopes met for the first time get a bit =====
+    public long intern(String scopes) {
+        long mask = 0L;
+        for (String scope : split(scopes)) {
+            Integer bit = snapshot.bits().get(scope);
+            mask |= 1L << (bit != null ? bit : internScope(scope));
+        }
+        return mask;
+    }
+
+    // ===== Read side: never writes, scopes nobody has been granted map to nothing =====
+    public long mask(String scopes) {
+        long mask = 0L;
+        for (String scope : split(scopes)) {
+            Integer bit = bit(scope);
+            if (bit != null) mask |= 1L << bit;
+        }
+        return mask;
+    }
+
+    /**
+     * @return empty when one of the scopes was never interned, hence cannot be held by anyone
+     */
+    public OptionalLong requiredMask(String scopes) {
+        long mask = 0L;
+        for (String scope : split(scopes)) {
+            Integer bit = bit(scope);
+            if (bit == null) {
+                return OptionalLong.empty();
+            }
+            mask |= 1L << bit;
+        }
+        return OptionalLong.of(mask);
+    }
+
+    public String names(long mask) {
+        String[] names = snapshot.names();
+        if (!knows(names, mask) && reload()) {
+            names = snapshot.names(); // bits possibly interned by another node
+        }
+        List<String> scopes = new ArrayList<>(Long.bitCount(mask));
+        for (int bit = 0; bit < names.length; bit++) {
+            if ((mask & 1L << bit) != 0 && names[bit] != null) scopes.add(names[bit]);
+        }
+        return String.join(" ", scopes);
+    }
+
+    public static boolean contains(long granted, long required) {
+        return (granted & required) == required;
+    }
+
+    // ===== Internal helpers =====
+    private Integer bit(String scope) {
+        Integer bit = snapshot.bits().get(scope);
+        if (bit == null && reload()) {
+            bit = snapshot.bits().get(scope); // possibly interned by another node
+        }
+        return bit;
+    }
+
+    private static boolean knows(String[] names, long mask) {
+        if (names.length < Long.SIZE && mask >>> names.length != 0) {
+            return false;
+        }
+        for (long rest = mask; rest != 0; rest &= rest - 1) {
+            if (names[Long.numberOfTrailingZeros(rest)] == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private synchronized int internScope(String scope) {
+        for (int attempt = 1; ; attempt++) {
+            Snapshot current = snapshot;
+            Integer bit = current.bits().get(scope);
+            if (bit != null) {
+                return bit;
+            }
+            int next = current.names().length;
+            if (next >= Long.SIZE) {
+                throw new IllegalStateException("No bit left for scope " + scope);
+            }
+            try {
+                iamRepository.insertScope(new Scope((short) next, scope));
+                snapshot = current.with(scope, next);
+                return next;
+            } catch (PersistenceException | TransactionalException e) {
+                // Bit or name taken by another node in the meantime
+                if (attempt == MAX_ATTEMPTS) {
+                    throw e;
+                }
+                snapshot = Snapshot.of(iamRepository.findAllScopes());
+            }
+        }
+    }
+
+    private synchronized boolean reload() {
+        long now = System.currentTimeMillis();
+        if (now - lastReloadMillis < RELOAD_INTERVAL_MILLIS) {
+            return false;
+        }
+        lastReloadMillis = now;
+        snapshot = Snapshot.of(iamRepository.findAllScopes());
+        return true;
+    }
+
+    private static String[] split(String scopes) {
+        return scopes == null || scopes.isBlank() ? new String[0] : scopes.trim().split("\\s+");
+    }
+}
@@ -1,16 +1,21 @@
 package org.eclipse.jakarta.IAM.controllers;
 
+import jakarta.annotation.Resource;
+import jakarta.enterprise.concurrent.ManagedExecutorService;
 import jakarta.inject.Inject;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.Context;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import org.eclipse.jakarta.IAM.entities.Identity;
 import org.eclipse.jakarta.IAM.controllers.IAMRepository;
-import org.eclipse.jakarta.IAM.controllers.IAMIdentityStore;
-import org.eclipse.jakarta.IAM.security.Argon2Utility;
+import org.eclipse.jakarta.IAM.security.LoginThrottle;
+import org.eclipse.jakarta.IAM.security.PasswordHashingService;
 
-import java.util.Optional;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 
 @Path("/auth")
 @Produces(MediaType.APPLICATION_JSON)
@@ -21,55 +26,79 @@ public class SignupController {
     private IAMRepository iamRepository;
 
     @Inject
-    private IAMIdentityStore identityStore;
+    private PasswordHashingService passwordHashingService;
+
+    @Inject
+    private LoginThrottle loginThrottle;
+
+    @Resource
+    private ManagedExecutorService managedExecutor;
 
     // ===== Sign up endpoint =====
+    // The endpoints below complete asynchronously: database work runs on the managed
+    // executor and Argon2 on the hashing pool, keeping HTTP workers free for cheap requests.
     @POST
     @Path("/signup")
-    public Response signup(SignupRequest request) {
+    public CompletionStage<Response> signup(SignupRequest request) {
         Objects.requireNonNull(request, "Signup request cannot be null");
 
         if (request.getUsername() == null || request.getPassword() == null) {
-            return Response.status(Response.Status.BAD_REQUEST)
-                    .entity("Username and password are required").build();
-        }
-
-        Optional<Identity> existing = iamRepository.findIdentityByUsername(request.getUsername());
-        if (existing.isPresent()) {
-            return Response.status(Response.Status.CONFLICT)
-                    .entity("Username already exists").build();
+            return CompletableFuture.completedFuture(Response.status(Response.Status.BAD_REQUEST)
+                    .entity("Username and password are required").build());
         }
 
-        Identity identity = new Identity();
-        identity.setUsername(request.getUsername());
-        identity.setPassword(Argon2Utility.hash(request.getPassword().toCharArray()));
-        identity.setProvidedScopes("profile.read cv.read cv.share"); // default scopes
-
-        iamRepository.save(identity); // persist the new user
-
-        return Response.status(Response.Status.CREATED)
-                .entity("User registered successfully").build();
+        return CompletableFuture.supplyAsync(
+                        () -> iamRepository.findIdentityByUsername(request.getUsername()), managedExecutor)
+                .thenCompose(existing -> {
+                    if (existing.isPresent()) {
+                        return CompletableFuture.completedFuture(Response.status(Response.Status.CONFLICT)
+                                .entity("Username already exists").build());
+                    }
+                    return passwordHashingService.hashAsync(request.getPassword().toCharArray())
+                            .thenApplyAsync(hash -> {
+                                Identity identity = new Identity();
+                                identity.setUsername(request.getUsername());
+                                identity.setPassword(hash);
+                                identity.setProvidedScopes("profile.read cv.read cv.share"); // default scopes
+
+                                iamRepository.save(identity); // persist the new user
+
+                                return Response.status(Response.Status.CREATED)
+                                        .entity("User registered successfully").build();
+                            }, managedExecutor);
+                })
+                .exceptionally(AsyncResponses::failure);
     }
 
     // ===== Login endpoint =====
     @POST
     @Path("/login")
-    public Response login(LoginRequest request) {
+    public CompletionStage<Response> login(LoginRequest request, @Context HttpServletRequest httpRequest) {
         Objects.requireNonNull(request, "Login request cannot be null");
 
         if (request.getUsername() == null || request.getPassword() == null) {
-            return Response.status(Response.Status.BAD_REQUEST)
-                    .entity("Username and password are required").build();
-        }
-
-        // Validate credentials using IAMIdentityStore
-        boolean valid = identityStore.validateCredentials(request.getUsername(), request.getPassword());
-        if (!valid) {
-            return Response.status(Response.Status.UNAUTHORIZED)
-                    .entity("Invalid username or password").build();
+            return CompletableFuture.completedFuture(Response.status(Response.Status.BAD_REQUEST)
+                    .entity("Username and password are required").build());
         }
 
-        return Response.ok("Login successful").build();
+        String clientAddress = httpRequest.getRemoteAddr();
+        loginThrottle.check(request.getUsername(), clientAddress);
+
+        return CompletableFuture.supplyAsync(
+                        () -> iamRepository.findIdentityByUsername(request.getUsername()), managedExecutor)
+                .thenCompose(identityOpt -> identityOpt
+                        .map(identity -> passwordHashingService.verifyAsync(identity,
+                                request.getPassword().toCharArray()))
+                        .orElseGet(() -> CompletableFuture.completedFuture(false)))
+                .thenApply(valid -> {
+                    if (!valid) {
+                        loginThrottle.recordFailure(request.getUsername(), clientAddress);
+                        return Response.status(Response.Status.UNAUTHORIZED)
+                                .entity("Invalid username or password").build();
+                    }
+                    return Response.ok("Login successful").build();
+                })
+                .exceptionally(AsyncResponses::failure);
     }
 
     // ===== DTOs =====
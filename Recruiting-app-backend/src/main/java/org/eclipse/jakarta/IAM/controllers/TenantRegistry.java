@@ -0,0 +1,186 @@
+package org.eclipse.jakarta.IAM.controllers;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import jakarta.enterprise.concurrent.ManagedScheduledExecutorService;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import org.eclipse.jakarta.IAM.entities.Tenant;
+import org.eclipse.jakarta.IAM.security.ExpiringMap;
+import org.eclipse.jakarta.IAM.security.ScheduledTasks;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/**
+ * In-memory registry of the tenants (OAuth clients), indexed by id, client_id
+ * and name, so that resolving a client costs a map lookup instead of a query.
+ *
+ * The registry is loaded at deployment and reads through to the repository on a
+ * miss. Every committed {@link IAMRepository#save(Tenant)} fires a
+ * {@link TenantSaved} event that drops the indexes; the next lookup reloads them.
+ * Saves made on other nodes are picked up by a full reload every
+ * {@code iam.tenants.refresh-seconds}, which bounds how long they go unnoticed.
+ * Keys the repository does not know either are remembered for
+ * {@code iam.tenants.negative-ttl-seconds}, so that a flood of unknown client
+ * IDs does not cost a query each; a save drops them with the indexes.
+ * Tenants handed out are detached and shared: callers must not modify them.
+ */
+@ApplicationScoped
+public class TenantRegistry {
+
+    private static final Logger LOGGER = Logger.getLogger(TenantRegistry.class.getName());
+
+    private static final long REFRESH_SECONDS = Long.getLong("iam.tenants.refresh-seconds", 60L);
+    private static final long NEGATIVE_TTL_MILLIS = Long.getLong("iam.tenants.negative-ttl-seconds", 10L) * 1000L;
+    private static final int MAX_UNKNOWN_KEYS = Integer.getInteger("iam.tenants.max-unknown-keys", 100_000);
+
+    /** Fired by the repository when a tenant is created or updated. */
+    public record TenantSaved(Short tenantId) {
+    }
+
+    // A key looked up in one of the indexes, as remembered when no tenant has it
+    private record Lookup(String index, Object key) {
+    }
+
+    private record Indexes(ConcurrentMap<Short, Tenant> byId,
+                           ConcurrentMap<String, Tenant> byClientId,
+                           ConcurrentMap<String, Tenant> byName,
+                           ExpiringMap<Lookup, Boolean> unknown) {
+
+        static Indexes of(List<Tenant> tenants) {
+            Indexes indexes = new Indexes(new ConcurrentHashMap<>(), new ConcurrentHashMap<>(),
+                    new ConcurrentHashMap<>(), new ExpiringMap<>(MAX_UNKNOWN_KEYS));
+            tenants.forEach(indexes::add);
+            return indexes;
+        }
+
+        void add(Tenant tenant) {
+            byId.put(tenant.getId(), tenant);
+            byClientId.put(tenant.getClientId(), tenant);
+            byName.put(tenant.getName(), tenant);
+        }
+    }
+
+    @Resource
+    private ManagedScheduledExecutorService scheduler;
+
+    @Inject
+    private IAMRepository iamRepository;
+
+    @Inject
+    private IAMMetrics metrics;
+
+    private volatile Indexes indexes;
+    // Bumped by every invalidation, so that a reload racing with a save is not published
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong lastReloadMillis = new AtomicLong();
+    private ScheduledFuture<?> refreshTask;
+    private LongAdder hits;
+    private LongAdder misses;
+    private LongAdder reloads;
+
+    @PostConstruct
+    public void start() {
+        hits = metrics.counter("iam.tenants.hits");
+        misses = metrics.counter("iam.tenants.misses");
+        reloads = metrics.counter("iam.tenants.reloads");
+        metrics.gauge("iam.tenants.reload.last-millis", lastReloadMillis::get);
+        metrics.gauge("iam.tenants.size", () -> {
+            Indexes current = indexes;
+            return current == null ? 0 : current.byId().size();
+        });
+        reload();
+        refreshTask = scheduler.scheduleWithFixedDelay(ScheduledTasks.guarded(this::load, "Tenant registry refresh"),
+                REFRESH_SECONDS, REFRESH_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        refreshTask.cancel(false);
+    }
+
+    // ===== Lookups =====
+    public Optional<Tenant> findById(Short id) {
+        return find(Indexes::byId, "id", id, () -> iamRepository.findTenantById(id));
+    }
+
+    public Optional<Tenant> findByClientId(String clientId) {
+        return find(Indexes::byClientId, "client_id", clientId, () -> iamRepository.findTenantByClientId(clientId));
+    }
+
+    public Optional<Tenant> findByName(String name) {
+        return find(Indexes::byName, "name", name, () -> iamRepository.findTenantByName(name));
+    }
+
+    // ===== Invalidation, once the saving transaction has committed =====
+    void onTenantSaved(@Observes(during = TransactionPhase.AFTER_SUCCESS) TenantSaved event) {
+        generation.incrementAndGet();
+        indexes = null;
+    }
+
+    // ===== Internal helpers =====
+    private <K> Optional<Tenant> find(Function<Indexes, ConcurrentMap<K, Tenant>> index, String indexName, K key,
+                                      Supplier<Optional<Tenant>> query) {
+        if (key == null) {
+            return Optional.empty();
+        }
+        Indexes current = indexes;
+        if (current == null) {
+            current = reload();
+        }
+        Tenant tenant = index.apply(current).get(key);
+        if (tenant != null) {
+            hits.increment();
+            return Optional.of(tenant);
+        }
+        long now = System.currentTimeMillis();
+        Lookup lookup = new Lookup(indexName, key);
+        if (current.unknown().get(lookup, now) != null) {
+            hits.increment();
+            return Optional.empty();
+        }
+        // Created on another node, or not a tenant at all
+        misses.increment();
+        Optional<Tenant> loaded = query.get();
+        if (loaded.isPresent()) {
+            current.add(loaded.get());
+        } else {
+            current.unknown().put(lookup, Boolean.TRUE, now + NEGATIVE_TTL_MILLIS, now);
+        }
+        return loaded;
+    }
+
+    private synchronized Indexes reload() {
+        Indexes current = indexes;
+        if (current != null) {
+            return current; // reloaded by a concurrent lookup
+        }
+        return load();
+    }
+
+    private synchronized Indexes load() {
+        long loadedGeneration = generation.get();
+        long start = System.nanoTime();
+        Indexes loaded = Indexes.of(iamRepository.findAllTenants());
+        if (generation.get() == loadedGeneration) {
+            indexes = loaded;
+        }
+        lastReloadMillis.set((System.nanoTime() - start) / 1_000_000L);
+        reloads.increment();
+        LOGGER.fine(() -> "Loaded " + loaded.byId().size() + " tenants");
+        return loaded;
+    }
+}
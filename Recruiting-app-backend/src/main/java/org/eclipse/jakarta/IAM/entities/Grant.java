@@ -6,7 +6,9 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "issued_grants")
+@Cacheable
+@Table(name = "issued_grants",
+        indexes = @Index(name = "idx_issued_grants_identity", columnList = "identity_id"))
 public class Grant {
 
     @EmbeddedId
@@ -25,6 +27,9 @@ public class Grant {
     @Column(name = "approved_scopes", nullable = false, length = 512)
     private String approvedScopes;
 
+    @Column(name = "approved_scopes_mask")
+    private Long approvedScopesMask;
+
     @Column(name = "issuance_date_time", nullable = false)
     private LocalDateTime issuanceDateTime;
 
@@ -62,6 +67,14 @@ public class Grant {
         this.approvedScopes = approvedScopes;
     }
 
+    public Long getApprovedScopesMask() {
+        return approvedScopesMask;
+    }
+
+    public void setApprovedScopesMask(Long approvedScopesMask) {
+        this.approvedScopesMask = approvedScopesMask;
+    }
+
     public LocalDateTime getIssuanceDateTime() {
         return issuanceDateTime;
     }
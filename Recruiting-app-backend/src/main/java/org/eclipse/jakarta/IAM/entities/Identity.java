@@ -3,6 +3,7 @@ package org.eclipse.jakarta.IAM.entities;
 import jakarta.persistence.*;
 
 @Entity
+@Cacheable
 @Table(name = "identities")
 public class Identity {
 
@@ -23,6 +24,12 @@ public class Identity {
     @Column(name = "provided_scopes", nullable = false)
     private String providedScopes;
 
+    /**
+     * Bit mask of the provided scopes, kept in sync by the repository
+     */
+    @Column(name = "provided_scopes_mask")
+    private Long providedScopesMask;
+
     // ===== Getters & Setters =====
 
     public Long getId() {
@@ -56,6 +63,14 @@ public class Identity {
         this.providedScopes = providedScopes;
     }
 
+    public Long getProvidedScopesMask() {
+        return providedScopesMask;
+    }
+
+    public void setProvidedScopesMask(Long providedScopesMask) {
+        this.providedScopesMask = providedScopesMask;
+    }
+
     @Override
     public String toString() {
         return "Identity{" +
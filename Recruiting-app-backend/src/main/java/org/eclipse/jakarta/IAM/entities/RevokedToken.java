@@ -0,0 +1,51 @@
+package org.eclipse.jakarta.IAM.entities;
+
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A revoked token ID: either the jti of a redeemed refresh token or the ID of a
+ * whole refresh token family. Rows are only needed until the last token they
+ * could match has expired.
+ */
+@Entity
+@Table(name = "revoked_tokens", indexes = {
+        @Index(name = "idx_revoked_tokens_revoked_at", columnList = "revoked_at"),
+        @Index(name = "idx_revoked_tokens_expires_at", columnList = "expires_at")
+})
+public class RevokedToken {
+
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    @Column(name = "revoked_at", nullable = false)
+    private LocalDateTime revokedAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    public RevokedToken() {}
+
+    public RevokedToken(String id, LocalDateTime revokedAt, LocalDateTime expiresAt) {
+        this.id = id;
+        this.revokedAt = revokedAt;
+        this.expiresAt = expiresAt;
+    }
+
+    /* ===== Getters ===== */
+
+    public String getId() {
+        return id;
+    }
+
+    public LocalDateTime getRevokedAt() {
+        return revokedAt;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+}
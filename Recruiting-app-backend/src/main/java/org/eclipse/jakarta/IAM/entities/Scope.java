@@ -0,0 +1,37 @@
+package org.eclipse.jakarta.IAM.entities;
+
+
+import jakarta.persistence.*;
+
+/**
+ * An OAuth scope interned to a bit position: scope masks stored on grants,
+ * identities and tenants have bit {@code 1L << bit} set when they include it.
+ * Rows are only ever added, so a bit keeps its meaning for good.
+ */
+@Entity
+@Table(name = "scopes")
+public class Scope {
+
+    @Id
+    private Short bit;
+
+    @Column(length = 191, unique = true, nullable = false)
+    private String name;
+
+    public Scope() {}
+
+    public Scope(Short bit, String name) {
+        this.bit = bit;
+        this.name = name;
+    }
+
+    /* ===== Getters ===== */
+
+    public Short getBit() {
+        return bit;
+    }
+
+    public String getName() {
+        return name;
+    }
+}
@@ -4,7 +4,8 @@ package org.eclipse.jakarta.IAM.entities;
 import jakarta.persistence.*;
 
 @Entity
-@Table(name = "tenants")
+@Cacheable
+@Table(name = "tenants", indexes = @Index(name = "idx_tenants_name", columnList = "name"))
 public class Tenant {
 
     @Id
@@ -38,6 +39,12 @@ public class Tenant {
     @Column(name = "required_scopes", nullable = false)
     private String requiredScopes;
 
+    /**
+     * Bit mask of the required scopes, kept in sync by the repository
+     */
+    @Column(name = "required_scopes_mask")
+    private Long requiredScopesMask;
+
     /**
      * Human-readable name (e.g. "LinkedIn Recruiter App")
      */
@@ -85,6 +92,14 @@ public class Tenant {
         this.requiredScopes = requiredScopes;
     }
 
+    public Long getRequiredScopesMask() {
+        return requiredScopesMask;
+    }
+
+    public void setRequiredScopesMask(Long requiredScopesMask) {
+        this.requiredScopesMask = requiredScopesMask;
+    }
+
     public String getName() {
         return name;
     }
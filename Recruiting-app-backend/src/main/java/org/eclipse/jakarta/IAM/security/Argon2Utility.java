@@ -4,22 +4,46 @@ import de.mkammerer.argon2.Argon2;
 import de.mkammerer.argon2.Argon2Factory;
 import jakarta.security.enterprise.identitystore.PasswordHash;
 
+import java.util.logging.Logger;
+
 public class Argon2Utility implements PasswordHash {
 
-    // ===== Hardcoded Argon2 parameters =====
+    private static final Logger LOGGER = Logger.getLogger(Argon2Utility.class.getName());
+
+    // ===== Argon2 parameters =====
     private static final int SALT_LENGTH = 16;
     private static final int HASH_LENGTH = 32;
-    private static final int ITERATIONS = 3;
-    private static final int MEMORY = 65536; // in KB
-    private static final int THREADS = 1;
+    private static final int DEFAULT_ITERATIONS = 3;
+    private static final int DEFAULT_MEMORY = 65536; // in KB
+    private static final int DEFAULT_THREADS = 1;
+    private static final int MIN_MEMORY = 19456; // in KB, OWASP minimum for Argon2id
+    private static final int CALIBRATION_SAMPLES = 10;
+    private static final int MAX_ITERATIONS = 64;
+
+    /**
+     * Cost parameters used for new hashes. Hashes produced with any other
+     * parameters are still verified, and are rehashed on the next successful login
+     * only when one of their costs is below the current one.
+     */
+    public record Parameters(int iterations, int memory, int parallelism) {
+
+        boolean weakerThan(Parameters floor) {
+            return memory < floor.memory || iterations < floor.iterations || parallelism < floor.parallelism;
+        }
+    }
 
     private static final Argon2 argon2 = Argon2Factory.create(
             Argon2Factory.Argon2Types.ARGON2id, SALT_LENGTH, HASH_LENGTH);
 
+    private static volatile Parameters parameters = new Parameters(
+            Integer.getInteger("iam.argon2.iterations", DEFAULT_ITERATIONS),
+            Integer.getInteger("iam.argon2.memory-kb", DEFAULT_MEMORY),
+            Integer.getInteger("iam.argon2.parallelism", DEFAULT_THREADS));
+
     // ===== Hash a password =====
     public static String hash(char[] clientPassword) {
         try {
-            return argon2.hash(ITERATIONS, MEMORY, THREADS, clientPassword);
+            return hash(parameters, clientPassword);
         } finally {
             argon2.wipeArray(clientPassword);
         }
@@ -34,6 +58,132 @@ public class Argon2Utility implements PasswordHash {
         }
     }
 
+    /**
+     * Checks a password and upgrades its hash when it was produced with outdated parameters.
+     *
+     * @return null if the password does not match, {@code serverHash} itself if it is
+     * up to date, or a new hash computed with the current parameters
+     */
+    public static String checkAndRehash(String serverHash, char[] clientPassword) {
+        try {
+            if (!argon2.verify(serverHash, clientPassword)) {
+                return null;
+            }
+            return needsRehash(serverHash) ? hash(parameters, clientPassword) : serverHash;
+        } finally {
+            argon2.wipeArray(clientPassword);
+        }
+    }
+
+    // ===== Detect hashes made with weaker parameters =====
+    public static boolean needsRehash(String serverHash) {
+        Parameters stored = parametersOf(serverHash);
+        return stored == null || stored.weakerThan(parameters);
+    }
+
+    /**
+     * @return the parameters encoded in an Argon2id hash, null when it is not one
+     */
+    public static Parameters parametersOf(String serverHash) {
+        // Encoded form: $argon2id$v=19$m=65536,t=3,p=1$<salt>$<hash>
+        String[] sections = serverHash.split("\\$");
+        if (sections.length != 6 || !"argon2id".equals(sections[1])) {
+            return null;
+        }
+        int memory = -1, iterations = -1, parallelism = -1;
+        for (String field : sections[3].split(",")) {
+            int separator = field.indexOf('=');
+            if (separator < 0) {
+                return null;
+            }
+            int value;
+            try {
+                value = Integer.parseInt(field.substring(separator + 1));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+            switch (field.substring(0, separator)) {
+                case "m" -> memory = value;
+                case "t" -> iterations = value;
+                case "p" -> parallelism = value;
+                default -> {
+                    return null;
+                }
+            }
+        }
+        return memory < 0 || iterations < 0 || parallelism < 0
+                ? null : new Parameters(iterations, memory, parallelism);
+    }
+
+    // ===== Current parameters =====
+    public static Parameters parameters() {
+        return parameters;
+    }
+
+    // ===== Pin parameters calibrated earlier, or on another node =====
+    public static void use(Parameters pinned) {
+        parameters = pinned;
+    }
+
+    // ===== Native memory needed by a single hash, in KB =====
+    public static int memoryCost() {
+        return parameters.memory();
+    }
+
+    /**
+     * Measures this host and picks the strongest parameters whose slowest of
+     * {@value #CALIBRATION_SAMPLES} single-threaded hashes stays under {@code targetMillis}.
+     * Memory starts at {@code maxMemory} and is only lowered (down to the OWASP
+     * minimum) when a single pass is already too slow; iterations are then searched
+     * by doubling and bisecting, up to {@value #MAX_ITERATIONS}, so the number of
+     * measurements stays logarithmic whatever the target.
+     */
+    public static Parameters calibrate(long targetMillis, int maxMemory, int maxParallelism) {
+        int lanes = Math.max(1, Math.min(maxParallelism, Runtime.getRuntime().availableProcessors()));
+        int memory = Math.max(maxMemory, MIN_MEMORY);
+        while (memory > MIN_MEMORY && maxMillis(new Parameters(1, memory, lanes)) > targetMillis) {
+            memory = Math.max(MIN_MEMORY, memory / 2);
+        }
+        // Largest iteration count known to fit, and smallest known not to (or past the cap)
+        int fits = 1;
+        int exceeds = 2;
+        while (exceeds <= MAX_ITERATIONS && maxMillis(new Parameters(exceeds, memory, lanes)) <= targetMillis) {
+            fits = exceeds;
+            exceeds *= 2;
+        }
+        exceeds = Math.min(exceeds, MAX_ITERATIONS + 1);
+        while (exceeds - fits > 1) {
+            int middle = (fits + exceeds) >>> 1;
+            if (maxMillis(new Parameters(middle, memory, lanes)) <= targetMillis) {
+                fits = middle;
+            } else {
+                exceeds = middle;
+            }
+        }
+        Parameters calibrated = new Parameters(fits, memory, lanes);
+        parameters = calibrated;
+        LOGGER.info("Argon2 calibrated for max of " + CALIBRATION_SAMPLES + " hashes <= "
+                + targetMillis + " ms: " + calibrated);
+        return calibrated;
+    }
+
+    // ===== Internal helpers =====
+    private static String hash(Parameters p, char[] clientPassword) {
+        return argon2.hash(p.iterations(), p.memory(), p.parallelism(), clientPassword);
+    }
+
+    // Slowest of a few samples: too few for a percentile, but a conservative bound on an idle host
+    private static long maxMillis(Parameters p) {
+        char[] sample = "calibration-password".toCharArray();
+        long slowest = 0L;
+        for (int i = 0; i < CALIBRATION_SAMPLES; i++) {
+            long start = System.nanoTime();
+            argon2.hash(p.iterations(), p.memory(), p.parallelism(), sample);
+            slowest = Math.max(slowest, System.nanoTime() - start);
+        }
+        return slowest / 1_000_000L;
+    }
+
     // ===== Implement PasswordHash interface =====
     @Override
     public String generate(char[] password) {
@@ -1,5 +1,6 @@
 package org.eclipse.jakarta.IAM.security;
 
+import javax.crypto.AEADBadTagException;
 import javax.crypto.Cipher;
 import javax.crypto.KeyGenerator;
 import javax.crypto.SecretKey;
@@ -7,31 +8,46 @@ import javax.crypto.spec.IvParameterSpec;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.security.GeneralSecurityException;
+import java.security.InvalidKeyException;
 import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
+import java.util.Arrays;
 import java.util.Base64;
-import java.util.UUID;
-
-
-import javax.crypto.KeyGenerator;
-import javax.crypto.SecretKey;
-import javax.crypto.Cipher;
-import javax.crypto.spec.IvParameterSpec;
-import java.nio.ByteBuffer;
-import java.security.SecureRandom;
-import java.nio.charset.StandardCharsets;
-import java.security.GeneralSecurityException;
-import java.security.MessageDigest;
-import java.util.Base64;
-import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Authorization code issued after login and exchanged at the token endpoint.
+ *
+ * A code is {@code urn:phoenix:code:} followed by the base64url encoding of
+ * {@code version | nonce | ciphertext}. The whole payload is sealed in a single
+ * ChaCha20-Poly1305 pass with the version byte as associated data; the plaintext
+ * holds each string as a 2-byte length and its UTF-8 bytes, the expiration as
+ * 8 bytes and the SHA-256 code challenge as its 32 raw bytes. Nothing is
+ * delimited by characters, so field values of any shape round-trip.
+ */
 public record AuthorizationCode(String tenantName, String identityUsername,
                                 String approvedScopes, Long expirationDate,
                                 String redirectUri){
-    private static final SecretKey key;
+    public static final int LIFETIME_SECONDS = 120;
+
+    private static volatile SecretKey key;
 
     private static final String codePrefix = "urn:phoenix:code:";
 
+    private static final byte VERSION = 1;
+    private static final int CHALLENGE_LEN = 32; // SHA-256
+    private static final int NULL_LEN = 0xFFFF;
+    private static final int ID_LEN = 18; // base64url characters covering version and nonce (13 bytes)
+
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
     static {
         try {
             key = KeyGenerator.getInstance("CHACHA20").generateKey();
@@ -40,93 +56,216 @@ public record AuthorizationCode(String tenantName, String identityUsername,
         }
     }
 
+    // ===== Replaces the per-process key with the one of the shared key store =====
+    static void useKey(SecretKey sharedKey) {
+        key = sharedKey;
+    }
+
+    /**
+     * @param codeChallenge S256 PKCE challenge, base64url (padded or standard base64 are accepted too)
+     */
     public String getCode(String codeChallenge) throws Exception {
-        String code = UUID.randomUUID().toString();
-        String payload = Base64.getEncoder().withoutPadding().encodeToString((tenantName+":"+identityUsername
-                +":"+approvedScopes+":"+expirationDate+":"+redirectUri).getBytes(StandardCharsets.UTF_8));
-        String associatedData =  codePrefix+code;
-        code = codePrefix+code+":"+payload;
-        return code+":"+Base64.getEncoder().withoutPadding().encodeToString(ChaCha20Poly1305.encrypt(codeChallenge.getBytes(),key));
+        byte[] challenge = decodeChallenge(codeChallenge);
+        byte[] tenant = utf8(tenantName);
+        byte[] username = utf8(identityUsername);
+        byte[] scopes = utf8(approvedScopes);
+        byte[] redirect = utf8(redirectUri);
+        ByteBuffer plaintext = ByteBuffer.allocate(4 * 2 + length(tenant) + length(username) + length(scopes)
+                + length(redirect) + Long.BYTES + CHALLENGE_LEN);
+        putString(plaintext, tenant);
+        putString(plaintext, username);
+        putString(plaintext, scopes);
+        putString(plaintext, redirect);
+        plaintext.putLong(expirationDate);
+        plaintext.put(challenge);
+        return codePrefix + Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(ChaCha20Poly1305.seal(plaintext.array(), key));
     }
 
-    public static AuthorizationCode decode(String authorizationCode,String codeVerifier) throws Exception {
-        int pos = authorizationCode.lastIndexOf(':');
-        String code = authorizationCode.substring(0,pos);
-        String cipherCodeChallenge = authorizationCode.substring(pos+1);
-        MessageDigest digest = MessageDigest.getInstance("SHA-256");
-        digest.update(codeVerifier.getBytes(StandardCharsets.UTF_8));
-        String expected = Base64.getEncoder().withoutPadding().encodeToString(digest.digest());
-        if(!expected.equals(new String(ChaCha20Poly1305.decrypt(Base64.getDecoder().decode(cipherCodeChallenge),key),StandardCharsets.UTF_8).replace('_','/').replace('-','+'))){
-            System.out.println(expected+" ?= "+ new String(ChaCha20Poly1305.decrypt(Base64.getDecoder().decode(cipherCodeChallenge),key),StandardCharsets.UTF_8));
-            return null;
+    // ===== Whether a code_challenge can be sealed in a code =====
+    public static boolean isChallenge(String codeChallenge) {
+        try {
+            decodeChallenge(codeChallenge);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
         }
-        code = code.substring(codePrefix.length());
-        pos = code.lastIndexOf(':');
-        code = new String(Base64.getDecoder().decode(code.substring(pos+1)),StandardCharsets.UTF_8);
-        String[] attributes = code.split(":");
-        return new AuthorizationCode(attributes[0],attributes[1],attributes[2],
-                Long.parseLong(attributes[3]),attributes[4]+":"+attributes[5]);
     }
-    private static class ChaCha20Poly1305 {
 
-        private static final String ENCRYPT_ALGO = "ChaCha20-Poly1305";
-        private static final int NONCE_LEN = 12; // 96 bits, 12 bytes
-
-        // if no nonce, generate a random 12 bytes nonce
-        public static byte[] encrypt(byte[] pText, SecretKey key) throws Exception {
-            return encrypt(pText, key, getNonce());
+    /**
+     * Opens the code and checks the PKCE verifier against its challenge.
+     *
+     * @return null when the code is malformed or tampered with, or the verifier does not match
+     */
+    public static AuthorizationCode decode(String authorizationCode,String codeVerifier) throws Exception {
+        byte[] sealed = sealedBytes(authorizationCode);
+        if (sealed == null || codeVerifier == null) {
+            return null;
+        }
+        ByteBuffer plaintext;
+        try {
+            plaintext = ByteBuffer.wrap(ChaCha20Poly1305.open(sealed, key));
+        } catch (AEADBadTagException e) {
+            return null;
         }
+        String tenantName = getString(plaintext);
+        String identityUsername = getString(plaintext);
+        String approvedScopes = getString(plaintext);
+        String redirectUri = getString(plaintext);
+        long expirationDate = plaintext.getLong();
 
-        public static byte[] encrypt(byte[] pText, SecretKey key, byte[] nonce) throws Exception {
+        byte[] expected = SHA256.get().digest(codeVerifier.getBytes(StandardCharsets.US_ASCII));
+        // Constant-time comparison with the sealed challenge, read in place
+        int difference = 0;
+        for (int i = 0; i < CHALLENGE_LEN; i++) {
+            difference |= expected[i] ^ plaintext.get();
+        }
+        if (difference != 0) {
+            return null;
+        }
+        return new AuthorizationCode(tenantName, identityUsername, approvedScopes, expirationDate, redirectUri);
+    }
 
-            Cipher cipher = Cipher.getInstance(ENCRYPT_ALGO);
+    /**
+     * Identifies a code by its version and nonce, read from the first characters of
+     * its base64url encoding without decoding or decrypting anything. Unique per code
+     * issued with a given key, as the nonce never repeats.
+     *
+     * @return null when the string cannot be a code
+     */
+    public static String idOf(String authorizationCode) {
+        if (authorizationCode == null || !authorizationCode.startsWith(codePrefix)
+                || authorizationCode.length() < codePrefix.length() + ID_LEN) {
+            return null;
+        }
+        return authorizationCode.substring(codePrefix.length(), codePrefix.length() + ID_LEN);
+    }
 
-            // IV, initialization value with nonce
-            IvParameterSpec iv = new IvParameterSpec(nonce);
+    // ===== Codec helpers =====
+    private static byte[] sealedBytes(String authorizationCode) {
+        if (authorizationCode == null || !authorizationCode.startsWith(codePrefix)) {
+            return null;
+        }
+        try {
+            byte[] ascii = authorizationCode.getBytes(StandardCharsets.ISO_8859_1);
+            ByteBuffer sealed = Base64.getUrlDecoder().decode(
+                    ByteBuffer.wrap(ascii, codePrefix.length(), ascii.length - codePrefix.length()));
+            return sealed.array().length == sealed.remaining()
+                    ? sealed.array() : Arrays.copyOfRange(sealed.array(), 0, sealed.remaining());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
 
-            cipher.init(Cipher.ENCRYPT_MODE, key, iv);
+    private static byte[] decodeChallenge(String codeChallenge) {
+        if (codeChallenge == null) {
+            throw new IllegalArgumentException("code_challenge is required");
+        }
+        String normalized = codeChallenge.replace('+', '-').replace('/', '_').replace("=", "");
+        byte[] challenge = Base64.getUrlDecoder().decode(normalized);
+        if (challenge.length != CHALLENGE_LEN) {
+            throw new IllegalArgumentException("code_challenge is not a SHA-256 digest");
+        }
+        return challenge;
+    }
 
-            byte[] encryptedText = cipher.doFinal(pText);
+    private static byte[] utf8(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
 
-            // append nonce to the encrypted text
-            byte[] output = ByteBuffer.allocate(encryptedText.length + NONCE_LEN)
-                    .put(encryptedText)
-                    .put(nonce)
-                    .array();
+    private static int length(byte[] value) {
+        return value == null ? 0 : value.length;
+    }
 
-            return output;
+    private static void putString(ByteBuffer buffer, byte[] value) {
+        if (value == null) {
+            buffer.putShort((short) NULL_LEN);
+            return;
+        }
+        if (value.length >= NULL_LEN) {
+            throw new IllegalArgumentException("Authorization code field too long");
         }
+        buffer.putShort((short) value.length).put(value);
+    }
 
-        public static byte[] decrypt(byte[] cText, SecretKey key) throws Exception {
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getShort() & 0xFFFF;
+        if (length == NULL_LEN) {
+            return null;
+        }
+        // Decoded straight from the plaintext array, no intermediate copy
+        String value = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
 
-            ByteBuffer bb = ByteBuffer.wrap(cText);
+    /**
+     * ChaCha20-Poly1305 with cipher instances confined to each thread, re-initialized
+     * for each operation instead of looked up through the provider list, and nonces
+     * taken from a process-wide counter instead of a new {@code SecureRandom} per code.
+     */
+    private static class ChaCha20Poly1305 {
 
-            // split cText to get the appended nonce
-            byte[] encryptedText = new byte[cText.length - NONCE_LEN];
-            byte[] nonce = new byte[NONCE_LEN];
-            bb.get(encryptedText);
-            bb.get(nonce);
+        private static final String ENCRYPT_ALGO = "ChaCha20-Poly1305";
+        private static final int NONCE_LEN = 12; // 96 bits, 12 bytes
+        private static final int TAG_LEN = 16;
+        private static final int HEADER_LEN = 1 + NONCE_LEN; // version, nonce
 
-            Cipher cipher = Cipher.getInstance(ENCRYPT_ALGO);
+        // Separate instances: the provider refuses to init with the key and nonce of the previous init
+        private static final ThreadLocal<Cipher> ENCRYPTORS = ThreadLocal.withInitial(ChaCha20Poly1305::newCipher);
+        private static final ThreadLocal<Cipher> DECRYPTORS = ThreadLocal.withInitial(ChaCha20Poly1305::newCipher);
 
-            IvParameterSpec iv = new IvParameterSpec(nonce);
+        // Nonce = random 32-bit prefix drawn once per process + 64-bit counter with a random start,
+        // so that nodes sharing the key through the key store do not collide
+        private static final int NONCE_PREFIX;
+        private static final AtomicLong NONCE_COUNTER;
 
-            cipher.init(Cipher.DECRYPT_MODE, key, iv);
+        static {
+            SecureRandom random = new SecureRandom();
+            NONCE_PREFIX = random.nextInt();
+            NONCE_COUNTER = new AtomicLong(random.nextLong());
+        }
 
-            // decrypted text
-            byte[] output = cipher.doFinal(encryptedText);
+        // ===== version | nonce | ciphertext, the version byte being authenticated as associated data =====
+        static byte[] seal(byte[] plaintext, SecretKey key) throws GeneralSecurityException {
+            byte[] output = new byte[HEADER_LEN + plaintext.length + TAG_LEN];
+            ByteBuffer.wrap(output)
+                    .put(VERSION)
+                    .putInt(NONCE_PREFIX)
+                    .putLong(NONCE_COUNTER.getAndIncrement());
 
+            Cipher cipher = ENCRYPTORS.get();
+            cipher.init(Cipher.ENCRYPT_MODE, key, new IvParameterSpec(output, 1, NONCE_LEN));
+            cipher.updateAAD(output, 0, 1);
+            cipher.doFinal(plaintext, 0, plaintext.length, output, HEADER_LEN);
             return output;
+        }
 
+        static byte[] open(byte[] sealed, SecretKey key) throws GeneralSecurityException {
+            if (sealed.length < HEADER_LEN + TAG_LEN || sealed[0] != VERSION) {
+                throw new AEADBadTagException("Unsupported authorization code");
+            }
+            IvParameterSpec iv = new IvParameterSpec(sealed, 1, NONCE_LEN);
+            Cipher cipher = DECRYPTORS.get();
+            try {
+                cipher.init(Cipher.DECRYPT_MODE, key, iv);
+            } catch (InvalidKeyException e) {
+                // Same code decrypted twice in a row on this thread: a replay, not worth a pooled instance
+                cipher = newCipher();
+                cipher.init(Cipher.DECRYPT_MODE, key, iv);
+            }
+            cipher.updateAAD(sealed, 0, 1);
+            return cipher.doFinal(sealed, HEADER_LEN, sealed.length - HEADER_LEN);
         }
 
-        // 96-bit nonce (12 bytes)
-        private static byte[] getNonce() {
-            byte[] newNonce = new byte[12];
-            new SecureRandom().nextBytes(newNonce);
-            return newNonce;
+        private static Cipher newCipher() {
+            try {
+                return Cipher.getInstance(ENCRYPT_ALGO);
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
         }
 
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,87 @@
+package org.eclipse.jakarta.IAM.security;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free Bloom filter over string keys: answers "definitely absent" or
+ * "probably present" with {@code hashes} reads of a bit array and no allocation.
+ *
+ * The bit positions come from one 64-bit hash of the key and a remix of it,
+ * combined by double hashing ({@code h1 + i * h2}), which keeps the false
+ * positive rate of independent hash functions. The bit array is rounded up to
+ * a power of two so that a position is a mask, not a division.
+ */
+final class BloomFilter {
+
+    private static final long MAX_BITS = 1L << 34;
+
+    private final AtomicLongArray words;
+    private final long bitMask;
+    private final int hashes;
+
+    private BloomFilter(long bits, int hashes) {
+        this.words = new AtomicLongArray((int) (bits >>> 6));
+        this.bitMask = bits - 1;
+        this.hashes = hashes;
+    }
+
+    // ===== Sized for the expected number of keys and the target false positive rate =====
+    static BloomFilter create(long expectedKeys, double falsePositiveRate) {
+        long n = Math.max(expectedKeys, 1L);
+        long bits = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int hashes = Math.max(1, (int) Math.round((double) bits / n * Math.log(2)));
+        long size = Math.min(Math.max(Long.highestOneBit(bits - 1) << 1, 64L), MAX_BITS);
+        return new BloomFilter(size, hashes);
+    }
+
+    void put(String key) {
+        long h1 = hash(key);
+        long h2 = remix(h1);
+        for (int i = 1; i <= hashes; i++) {
+            long bit = h1 + i * h2 & bitMask;
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current = words.get(word);
+            while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask)) {
+                current = words.get(word);
+            }
+        }
+    }
+
+    boolean mightContain(String key) {
+        long h1 = hash(key);
+        long h2 = remix(h1);
+        for (int i = 1; i <= hashes; i++) {
+            long bit = h1 + i * h2 & bitMask;
+            if ((words.get((int) (bit >>> 6)) & 1L << bit) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    long bitSize() {
+        return bitMask + 1;
+    }
+
+    // ===== Internal helpers =====
+    private static long remix(long hash) {
+        // Odd, so that successive positions never repeat within the array
+        return (Long.rotateLeft(hash, 32) ^ 0x9E3779B97F4A7C15L) * 0xbf58476d1ce4e5b9L | 1L;
+    }
+
+    private static long hash(String key) {
+        // FNV-1a over the UTF-16 units, finished with the murmur3 64-bit mixer
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
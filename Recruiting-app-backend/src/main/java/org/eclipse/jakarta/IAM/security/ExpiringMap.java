@@ -0,0 +1,77 @@
+package org.eclipse.jakarta.IAM.security;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Concurrent map whose entries each carry an expiry time, bounded to
+ * {@code maxSize} entries. Expired entries read as absent and are swept only when
+ * the map is full, at most once per second; when it is still full after a sweep,
+ * new entries are simply not stored instead of displacing live ones.
+ *
+ * Shared by the caches that can always recompute a missing value (validated
+ * tokens, grant decisions, unknown tenants), for which dropping an insert is
+ * cheaper than any eviction policy.
+ */
+public final class ExpiringMap<K, V> {
+
+    private static final long PURGE_INTERVAL_MILLIS = 1000L;
+
+    private record Entry<V>(V value, long expiresAtMillis) {
+    }
+
+    private final ConcurrentHashMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final AtomicLong lastPurge = new AtomicLong();
+    private final int maxSize;
+
+    public ExpiringMap(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    // ===== Value, null when absent or expired =====
+    public V get(K key, long nowMillis) {
+        Entry<V> entry = entries.get(key);
+        return entry == null || entry.expiresAtMillis() < nowMillis ? null : entry.value();
+    }
+
+    /**
+     * @return false when the map is full of unexpired entries and the value was not stored
+     */
+    public boolean put(K key, V value, long expiresAtMillis, long nowMillis) {
+        if (entries.size() >= maxSize) {
+            purgeExpired(nowMillis);
+            if (entries.size() >= maxSize) {
+                return false;
+            }
+        }
+        entries.put(key, new Entry<>(value, expiresAtMillis));
+        return true;
+    }
+
+    public void remove(K key) {
+        entries.remove(key);
+    }
+
+    // ===== Removes the entry only if it still holds this very value =====
+    public void remove(K key, V value) {
+        entries.computeIfPresent(key, (k, entry) -> entry.value() == value ? null : entry);
+    }
+
+    public void removeIf(Predicate<V> condition) {
+        entries.values().removeIf(entry -> condition.test(entry.value()));
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    // ===== Internal helpers =====
+    private void purgeExpired(long nowMillis) {
+        long last = lastPurge.get();
+        // At most one sweep per interval, whatever the insertion rate
+        if (nowMillis - last >= PURGE_INTERVAL_MILLIS && lastPurge.compareAndSet(last, nowMillis)) {
+            entries.values().removeIf(entry -> entry.expiresAtMillis() < nowMillis);
+        }
+    }
+}
@@ -1,154 +1,334 @@
 package org.eclipse.jakarta.IAM.security;
 
 import com.nimbusds.jose.*;
-import com.nimbusds.jose.crypto.Ed25519Signer;
-import com.nimbusds.jose.crypto.Ed25519Verifier;
-import com.nimbusds.jose.jwk.Curve;
-import com.nimbusds.jose.jwk.KeyUse;
-import com.nimbusds.jose.jwk.OctetKeyPair;
-import com.nimbusds.jose.jwk.gen.OctetKeyPairGenerator;
+import com.nimbusds.jose.jwk.JWK;
 import com.nimbusds.jwt.JWT;
 import com.nimbusds.jwt.JWTClaimsSet;
-import com.nimbusds.jwt.JWTParser;
 import com.nimbusds.jwt.SignedJWT;
 
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import jakarta.enterprise.concurrent.ManagedScheduledExecutorService;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.jakarta.IAM.controllers.IAMMetrics;
+import org.eclipse.jakarta.IAM.controllers.Role;
 
 import java.text.ParseException;
 import java.time.Instant;
-import java.time.LocalDateTime;
-import java.time.ZoneId;
-import java.time.ZoneOffset;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
 
+/**
+ * Issues and validates the IAM tokens.
+ *
+ * Signing keys are rotated by a background task: it pre-generates the next keys,
+ * retires the ones no outstanding token can use, and publishes the resulting key
+ * ring. Token minting only reads the published ring.
+ *
+ * When {@code iam.keystore.path} is set, the keys and the authorization code key
+ * are kept in a shared key store, so tokens and codes survive restarts and are
+ * accepted by every node using the same file.
+ */
 @ApplicationScoped
 public class JwtManager {
 
-    private final Map<String, Long> keyPairExpirationTimes = new HashMap<>();
-    private final Set<OctetKeyPair> cachedKeyPairs = new HashSet<>();
+    private static final Logger LOGGER = Logger.getLogger(JwtManager.class.getName());
+    private static final long ROTATION_INTERVAL_SECONDS = Long.getLong("iam.jwt.rotation-interval-seconds", 60L);
+    private static final int VALIDATION_CACHE_SIZE = Integer.getInteger("iam.jwt.validation-cache.size", 10000);
+    private static final boolean COMPACT_PROFILE = "compact".equalsIgnoreCase(System.getProperty("iam.jwt.profile"));
+
+    // ===== Claims of the compact access token profile =====
+    static final String CLAIM_TENANT = "tid";
+    static final String CLAIM_SCOPE_MASK = "s";
+    static final String CLAIM_ROLE_MASK = "r";
+    static final String CLAIM_SCOPE_VERSION = "sv";
+
+    // ===== Refresh token family, shared by all the tokens of one rotation chain =====
+    public static final String CLAIM_FAMILY = "fid";
+
+    @Resource
+    private ManagedScheduledExecutorService scheduler;
+
+    @Inject
+    private IAMMetrics metrics;
+
+    private SharedKeyStore keyStore;
+    private volatile KeyRing keyRing = KeyRing.EMPTY;
+    private final ValidatedTokenCache tokenCache = new ValidatedTokenCache(VALIDATION_CACHE_SIZE);
+    private ScheduledFuture<?> rotationTask;
+    private final LongAdder rotations = new LongAdder();
+    private final LongAdder keysGenerated = new LongAdder();
+    private final LongAdder keysRetired = new LongAdder();
+    private final AtomicLong lastRotationNanos = new AtomicLong();
     private final Long keyPairLifetimeDuration = 86400L; // 1 day
     private final Short keyPairCacheSize = 5;
     private final Integer jwtLifetimeDuration = 3600; // 1 hour
+    private final Long refreshTokenLifetimeDuration = 10800L; // 3 hours
     private final String issuer = "my-iam-server";
     private final List<String> audiences = List.of("my-client-app");
     private final String claimRoles = "roles";
-    private final OctetKeyPairGenerator keyPairGenerator = new OctetKeyPairGenerator(Curve.Ed25519);
+    private SigningAlgorithm algorithm;
+    private TokenMinter minter;
 
     @PostConstruct
     public void start() {
-        while (cachedKeyPairs.size() < keyPairCacheSize) {
-            cachedKeyPairs.add(generateKeyPair());
+        algorithm = SigningAlgorithm.named(System.getProperty("iam.jwt.algorithm", SigningAlgorithm.EdDSA.name()));
+        minter = new TokenMinter(issuer, audiences, COMPACT_PROFILE, jwtLifetimeDuration);
+        keyStore = SharedKeyStore.configured();
+        if (keyStore != null) {
+            AuthorizationCode.useKey(keyStore.authorizationCodeKey());
+            LOGGER.info("Sharing signing keys through " + keyStore.path());
+        }
+        rotate();
+        // Outside a container (e.g. benchmarks) nothing is injected and keys are only generated here
+        if (scheduler != null) {
+            rotationTask = scheduler.scheduleAtFixedRate(ScheduledTasks.guarded(this::rotate, "Signing key rotation"),
+                    ROTATION_INTERVAL_SECONDS, ROTATION_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        }
+        if (metrics != null) {
+            metrics.gauge("iam.jwt.keys.active", () -> keyRing.size());
+            metrics.gauge("iam.jwt.rotations", rotations::sum);
+            metrics.gauge("iam.jwt.keys.generated", keysGenerated::sum);
+            metrics.gauge("iam.jwt.keys.retired", keysRetired::sum);
+            metrics.gauge("iam.jwt.rotation.last.ms", () -> lastRotationNanos.get() / 1_000_000.0);
+            metrics.gauge("iam.jwt.validation-cache.hits", tokenCache.hits::sum);
+            metrics.gauge("iam.jwt.validation-cache.misses", tokenCache.misses::sum);
+            metrics.gauge("iam.jwt.validation-cache.size", tokenCache::size);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (rotationTask != null) {
+            rotationTask.cancel(false);
         }
     }
 
     public String generateAccessToken(String tenantId, String subject, String approvedScopes, String[] roles) {
         try {
-            OctetKeyPair octetKeyPair = getKeyPair().orElseThrow(() -> new RuntimeException("No valid KeyPair"));
-            JWSSigner signer = new Ed25519Signer(octetKeyPair);
-            JWSHeader header = new JWSHeader.Builder(JWSAlgorithm.EdDSA)
-                    .keyID(octetKeyPair.getKeyID())
-                    .type(JOSEObjectType.JWT)
-                    .build();
-            Instant now = Instant.now();
-            JWTClaimsSet claimsSet = new JWTClaimsSet.Builder()
-                    .issuer(issuer)
-                    .audience(audiences)
-                    .subject(subject)
-                    .claim("upn", subject)
-                    .claim("tenant_id", tenantId)
-                    .claim("scope", approvedScopes)
-                    .claim(claimRoles, roles != null ? roles : new String[]{"USER"})
-                    .jwtID(UUID.randomUUID().toString())
-                    .issueTime(Date.from(now))
-                    .notBeforeTime(Date.from(now))
-                    .expirationTime(Date.from(now.plus(jwtLifetimeDuration, ChronoUnit.SECONDS)))
-                    .build();
-            SignedJWT signedJWT = new SignedJWT(header, claimsSet);
-            signedJWT.sign(signer);
-            return signedJWT.serialize();
+            SigningKey key = getKeyPair().orElseThrow(() -> new RuntimeException("No valid KeyPair"));
+            return minter.mint(key, tenantId, subject, approvedScopes,
+                    roles != null ? roles : new String[]{Role.USER.name()});
         } catch (JOSEException e) {
             throw new RuntimeException(e);
         }
     }
 
     public String generateRefreshToken(String clientId, String subject, String approvedScope) throws Exception {
-        OctetKeyPair octetKeyPair = getKeyPair().orElseThrow(() -> new RuntimeException("No valid KeyPair"));
-        JWSSigner signer = new Ed25519Signer(octetKeyPair);
-        JWSHeader header = new JWSHeader.Builder(JWSAlgorithm.EdDSA)
-                .keyID(octetKeyPair.getKeyID())
-                .type(JOSEObjectType.JWT)
-                .build();
+        return generateRefreshToken(clientId, subject, approvedScope, UUID.randomUUID().toString());
+    }
+
+    /**
+     * Issues a refresh token of the given family. Each refresh token has its own
+     * {@code jti} so that it can be redeemed only once; the tokens obtained by
+     * rotating it share the family ID, which revokes them all at once.
+     */
+    public String generateRefreshToken(String clientId, String subject, String approvedScope,
+                                       String familyId) throws Exception {
+        SigningKey key = getKeyPair().orElseThrow(() -> new RuntimeException("No valid KeyPair"));
         Instant now = Instant.now();
         JWTClaimsSet refreshTokenClaims = new JWTClaimsSet.Builder()
                 .subject(subject)
                 .claim("tenant_id", clientId)
                 .claim("scope", approvedScope)
-                .expirationTime(Date.from(now.plus(3, ChronoUnit.HOURS)))
+                .claim(CLAIM_FAMILY, familyId)
+                .jwtID(UUID.randomUUID().toString())
+                .issueTime(Date.from(now))
+                .expirationTime(Date.from(now.plus(refreshTokenLifetimeDuration, ChronoUnit.SECONDS)))
                 .build();
-        SignedJWT signedRefreshToken = new SignedJWT(header, refreshTokenClaims);
-        signedRefreshToken.sign(signer);
+        SignedJWT signedRefreshToken = new SignedJWT(key.header(), refreshTokenClaims);
+        signedRefreshToken.sign(key.signer());
         return signedRefreshToken.serialize();
     }
 
+    public long getRefreshTokenLifetime() {
+        return refreshTokenLifetimeDuration;
+    }
+
+    /**
+     * Parses the token once, checks its signature with the cached verifier of its
+     * key and its expiration, and returns the parsed token. Tokens already validated
+     * are served from the validated-token cache until they expire.
+     */
     public Optional<JWT> validateJWT(String token) {
+        long now = System.currentTimeMillis();
+        SignedJWT cached = tokenCache.get(token, now);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
         try {
             SignedJWT parsed = SignedJWT.parse(token);
-            OctetKeyPair publicKey = cachedKeyPairs.stream()
-                    .filter(kp -> kp.getKeyID().equals(parsed.getHeader().getKeyID()))
-                    .findFirst()
-                    .orElseThrow(() -> new RuntimeException("KeyPair not found"))
-                    .toPublicJWK();
-            JWSVerifier verifier = new Ed25519Verifier(publicKey);
-            if (parsed.verify(verifier)) {
-                if (parsed.getJWTClaimsSet().getExpirationTime().toInstant().isBefore(Instant.now())) {
-                    return Optional.empty();
-                }
-                return Optional.of(JWTParser.parse(token));
+            SigningKey key = findKey(parsed.getHeader().getKeyID());
+            // The key decides the algorithm, never the token header
+            if (!key.algorithm().jwsAlgorithm().equals(parsed.getHeader().getAlgorithm())
+                    || !parsed.verify(key.verifier())) {
+                return Optional.empty();
+            }
+            Date expirationTime = parsed.getJWTClaimsSet().getExpirationTime();
+            if (expirationTime == null || expirationTime.getTime() < now) {
+                return Optional.empty();
             }
-            return Optional.empty();
+            tokenCache.put(token, parsed, key.kid(), expirationTime.getTime(), now);
+            return Optional.of(parsed);
         } catch (ParseException | JOSEException e) {
             throw new RuntimeException(e);
         }
     }
 
-    public OctetKeyPair getPublicValidationKey(String kid) {
-        return cachedKeyPairs.stream()
-                .filter(kp -> kp.getKeyID().equals(kid))
-                .findFirst()
-                .orElseThrow(() -> new RuntimeException("KeyPair not found"))
-                .toPublicJWK();
+    // ===== Claims of a validated token, whatever profile it was minted with =====
+    public String getTenant(JWT jwt) throws ParseException {
+        JWTClaimsSet claims = jwt.getJWTClaimsSet();
+        String tenant = claims.getStringClaim(CLAIM_TENANT);
+        return tenant != null ? tenant : claims.getStringClaim("tenant_id");
     }
 
-    private OctetKeyPair generateKeyPair() {
+    public String getScopes(JWT jwt) throws ParseException {
+        JWTClaimsSet claims = jwt.getJWTClaimsSet();
+        Long mask = claims.getLongClaim(CLAIM_SCOPE_MASK);
+        String scope = claims.getStringClaim("scope");
+        if (mask == null) {
+            return scope;
+        }
+        String known = ScopeDictionary.CURRENT.names(mask);
+        return scope == null || scope.isEmpty() ? known : known.isEmpty() ? scope : known + " " + scope;
+    }
+
+    public long getRoles(JWT jwt) throws ParseException {
+        JWTClaimsSet claims = jwt.getJWTClaimsSet();
+        Long mask = claims.getLongClaim(CLAIM_ROLE_MASK);
+        if (mask != null) {
+            return mask;
+        }
+        String[] roles = claims.getStringArrayClaim(claimRoles);
+        return roles == null ? Role.GUEST.getValue() : Role.mask(roles);
+    }
+
+    // ===== JWKS document of the active keys, and how long clients may cache it =====
+    public PublicKeySet getPublicKeySet() {
+        return keyRing.publicKeySet();
+    }
+
+    public long getPublicKeySetMaxAge() {
+        return ROTATION_INTERVAL_SECONDS;
+    }
+
+    public JWK getPublicValidationKey(String kid) {
+        SigningKey key = findKey(kid);
+        return key.algorithm().publicKey(key.key())
+                .orElseThrow(() -> new RuntimeException("No public key for " + key.algorithm()));
+    }
+
+    private SigningKey findKey(String kid) {
+        SigningKey key = keyRing.find(kid);
+        if (key == null) {
+            throw new RuntimeException("KeyPair not found");
+        }
+        return key;
+    }
+
+    private SigningKey generateKeyPair(long expiresAt) {
         try {
-            long now = LocalDateTime.now(ZoneId.of("UTC")).toEpochSecond(ZoneOffset.UTC);
             String kid = UUID.randomUUID().toString();
-            keyPairExpirationTimes.put(kid, now + keyPairLifetimeDuration);
-            return keyPairGenerator.keyUse(KeyUse.SIGNATURE)
-                    .keyID(kid).generate();
+            return SigningKey.of(algorithm.generate(kid, new Date(expiresAt * 1000L)));
         } catch (JOSEException e) {
             throw new RuntimeException(e);
         }
     }
 
-    private boolean hasNotExpired(OctetKeyPair keyPair) {
-        long now = LocalDateTime.now(ZoneId.of("UTC")).toEpochSecond(ZoneOffset.UTC);
-        return now <= keyPairExpirationTimes.get(keyPair.getKeyID());
+    private boolean isPublicKeyExpired(SigningKey key, long now) {
+        // Kept until the last token it signed, access or refresh, has expired
+        return now > key.expiresAt() + Math.max(jwtLifetimeDuration, refreshTokenLifetimeDuration);
     }
 
-    private boolean isPublicKeyExpired(OctetKeyPair keyPair) {
-        long now = LocalDateTime.now(ZoneId.of("UTC")).toEpochSecond(ZoneOffset.UTC);
-        return now > (keyPairExpirationTimes.get(keyPair.getKeyID()) + jwtLifetimeDuration);
+    private Optional<SigningKey> getKeyPair() {
+        return Optional.ofNullable(keyRing.current());
     }
 
-    private Optional<OctetKeyPair> getKeyPair() {
-        cachedKeyPairs.removeIf(this::isPublicKeyExpired);
-        while (cachedKeyPairs.stream().filter(this::hasNotExpired).count() < keyPairCacheSize) {
-            cachedKeyPairs.add(generateKeyPair());
+    /**
+     * Retires keys whose tokens can no longer be valid, pre-generates keys so that
+     * {@code keyPairCacheSize} unexpired ones of the configured algorithm are
+     * available, and publishes the new snapshot. Pre-generated keys take over one
+     * after the other: each expires one lifetime after the previous one.
+     *
+     * With a shared key store the rotation runs on the stored keys under the store
+     * lock, so every node adopts the keys generated by the others and only one of
+     * them generates the next ones. A node signs only with keys of its own
+     * algorithm; the others are kept to verify the tokens they signed.
+     */
+    private synchronized void rotate() {
+        long started = System.nanoTime();
+        long now = Instant.now().getEpochSecond();
+        KeyRing previous = keyRing;
+        KeyRing next;
+        if (keyStore == null) {
+            next = rotated(previous, now);
+        } else {
+            KeyRing[] stored = new KeyRing[1];
+            keyStore.updateSigningKeys(keys -> {
+                stored[0] = rotated(adopt(previous, keys), now);
+                return stored[0].keys().stream()
+                        .sorted(Comparator.comparingLong(SigningKey::expiresAt))
+                        .map(SigningKey::key)
+                        .toList();
+            });
+            next = stored[0];
+        }
+
+        List<String> retiredKids = previous.keys().stream()
+                .map(SigningKey::kid)
+                .filter(kid -> next.find(kid) == null)
+                .toList();
+        long added = next.keys().stream().filter(key -> previous.find(key.kid()) == null).count();
+        boolean changed = added > 0 || !retiredKids.isEmpty() || previous.current() != next.current();
+        if (changed) {
+            keyRing = next.publish();
+            tokenCache.evictKeys(retiredKids);
+        }
+
+        long elapsed = System.nanoTime() - started;
+        rotations.increment();
+        keysGenerated.add(added);
+        keysRetired.add(retiredKids.size());
+        lastRotationNanos.set(elapsed);
+        if (changed) {
+            LOGGER.info("Rotated signing keys in " + elapsed / 1_000 + " us: " + added
+                    + " added, " + retiredKids.size() + " retired, current kid " + next.current().kid());
+        }
+    }
+
+    private KeyRing rotated(KeyRing previous, long now) {
+        KeyRing ring = previous.retainIf(key -> !isPublicKeyExpired(key, now));
+        // Keys of another algorithm (configuration change, or another node) only verify until they expire
+        List<SigningKey> signing = ring.keys().stream().filter(key -> key.algorithm() == algorithm).toList();
+        long unexpired = signing.stream().filter(key -> key.hasNotExpired(now)).count();
+        long lastExpiry = signing.stream().mapToLong(SigningKey::expiresAt).max().orElse(now);
+        List<SigningKey> generated = new ArrayList<>();
+        for (long i = unexpired; i < keyPairCacheSize; i++) {
+            lastExpiry = Math.max(lastExpiry, now) + keyPairLifetimeDuration;
+            generated.add(generateKeyPair(lastExpiry));
+        }
+        return ring.with(generated).withCurrentAt(now, algorithm);
+    }
+
+    // ===== Ring of the stored keys, reusing the signers and verifiers already built =====
+    private static KeyRing adopt(KeyRing previous, List<JWK> keys) {
+        List<SigningKey> adopted = new ArrayList<>();
+        for (JWK key : keys) {
+            SigningKey known = previous.find(key.getKeyID());
+            try {
+                adopted.add(known != null ? known : SigningKey.of(key));
+            } catch (JOSEException e) {
+                throw new RuntimeException(e);
+            }
         }
-        return cachedKeyPairs.stream().filter(this::hasNotExpired).findAny();
+        return KeyRing.EMPTY.with(adopted);
     }
 
     public String getClaimRoles() {
@@ -0,0 +1,101 @@
+package org.eclipse.jakarta.IAM.security;
+
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Immutable snapshot of the signing keys, indexed by key ID, with an explicit
+ * current signing key. A new snapshot is built for every change and published
+ * atomically, so readers look keys up in O(1) without locking.
+ * A published ring also carries its pre-serialized JWKS document.
+ */
+final class KeyRing {
+
+    static final KeyRing EMPTY = new KeyRing(Map.of(), null, null);
+
+    private final Map<String, SigningKey> keysByKid;
+    private final SigningKey current;
+    private final PublicKeySet publicKeySet;
+
+    private KeyRing(Map<String, SigningKey> keysByKid, SigningKey current, PublicKeySet publicKeySet) {
+        this.keysByKid = keysByKid;
+        this.current = current;
+        this.publicKeySet = publicKeySet;
+    }
+
+    // ===== Lookups =====
+    SigningKey find(String kid) {
+        return kid == null ? null : keysByKid.get(kid);
+    }
+
+    SigningKey current() {
+        return current;
+    }
+
+    Collection<SigningKey> keys() {
+        return keysByKid.values();
+    }
+
+    int size() {
+        return keysByKid.size();
+    }
+
+    PublicKeySet publicKeySet() {
+        return publicKeySet;
+    }
+
+    // ===== Copy-on-write updates =====
+    KeyRing retainIf(Predicate<SigningKey> keep) {
+        Map<String, SigningKey> kept = new HashMap<>();
+        keysByKid.forEach((kid, key) -> {
+            if (keep.test(key)) kept.put(kid, key);
+        });
+        return new KeyRing(Map.copyOf(kept), current != null && kept.containsKey(current.kid()) ? current : null, null);
+    }
+
+    KeyRing with(List<SigningKey> added) {
+        Map<String, SigningKey> keys = new HashMap<>(keysByKid);
+        added.forEach(key -> keys.put(key.kid(), key));
+        return new KeyRing(Map.copyOf(keys), current, null);
+    }
+
+    /**
+     * Selects as current signing key the unexpired key of {@code algorithm} that
+     * expires first, so that keys are used one after the other. Keys of other
+     * algorithms stay in the ring for verification only.
+     */
+    KeyRing withCurrentAt(long now, SigningAlgorithm algorithm) {
+        SigningKey next = keysByKid.values().stream()
+                .filter(key -> key.algorithm() == algorithm && key.hasNotExpired(now))
+                .min(Comparator.comparingLong(SigningKey::expiresAt))
+                .orElse(null);
+        return new KeyRing(keysByKid, next, publicKeySet);
+    }
+
+    // ===== Serialize the publishable keys of every key in the ring =====
+    KeyRing publish() {
+        List<JWK> publicKeys = keysByKid.values().stream()
+                .sorted(Comparator.comparingLong(SigningKey::expiresAt))
+                .flatMap(key -> key.algorithm().publicKey(key.key()).stream())
+                .toList();
+        byte[] json = new JWKSet(publicKeys).toString(true).getBytes(StandardCharsets.UTF_8);
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+            String etag = Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+            return new KeyRing(keysByKid, current, new PublicKeySet(json, etag));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
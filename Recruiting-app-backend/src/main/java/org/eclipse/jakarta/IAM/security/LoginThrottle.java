@@ -0,0 +1,78 @@
+package org.eclipse.jakarta.IAM.security;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.Response;
+import org.eclipse.jakarta.IAM.controllers.IAMMetrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Throttles password logins by username and by client address before any Argon2
+ * work is done. Failed attempts are counted over a sliding window; once a key is
+ * over its limit, further attempts are rejected with 429 + Retry-After.
+ */
+@ApplicationScoped
+public class LoginThrottle {
+
+    // ===== Configurable limits (system properties) =====
+    private static final int USERNAME_LIMIT = Integer.getInteger("iam.throttle.username.limit", 5);
+    private static final int ADDRESS_LIMIT = Integer.getInteger("iam.throttle.address.limit", 20);
+    private static final long WINDOW_SECONDS = Long.getLong("iam.throttle.window-seconds", 60L);
+    private static final int SLOTS = Integer.getInteger("iam.throttle.slots", 16384);
+
+    @Inject
+    private IAMMetrics metrics;
+
+    private SlidingWindowCounter usernames;
+    private SlidingWindowCounter addresses;
+    private LongAdder throttledUsernames;
+    private LongAdder throttledAddresses;
+
+    @PostConstruct
+    public void start() {
+        usernames = new SlidingWindowCounter(SLOTS, WINDOW_SECONDS * 1000L);
+        addresses = new SlidingWindowCounter(SLOTS, WINDOW_SECONDS * 1000L);
+        throttledUsernames = metrics.counter("iam.throttle.throttled.username");
+        throttledAddresses = metrics.counter("iam.throttle.throttled.address");
+    }
+
+    /**
+     * Rejects the attempt when either the username or the client address
+     * already failed too often in the current window.
+     *
+     * @param clientAddress may be null when the caller is not an HTTP request
+     * @throws WebApplicationException with status 429
+     */
+    public void check(String username, String clientAddress) {
+        long now = System.currentTimeMillis();
+        if (username != null && usernames.estimate(username, now) >= USERNAME_LIMIT) {
+            throttledUsernames.increment();
+            throw tooManyRequests();
+        }
+        if (clientAddress != null && addresses.estimate(clientAddress, now) >= ADDRESS_LIMIT) {
+            throttledAddresses.increment();
+            throw tooManyRequests();
+        }
+    }
+
+    // ===== Count a failed attempt =====
+    public void recordFailure(String username, String clientAddress) {
+        long now = System.currentTimeMillis();
+        if (username != null) {
+            usernames.increment(username, now);
+        }
+        if (clientAddress != null) {
+            addresses.increment(clientAddress, now);
+        }
+    }
+
+    private static WebApplicationException tooManyRequests() {
+        return new WebApplicationException(Response.status(Response.Status.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, WINDOW_SECONDS)
+                .build());
+    }
+}
@@ -0,0 +1,265 @@
+package org.eclipse.jakarta.IAM.security;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import jakarta.enterprise.concurrent.ManagedExecutorService;
+import jakarta.enterprise.concurrent.ManagedThreadFactory;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.ServiceUnavailableException;
+import org.eclipse.jakarta.IAM.controllers.IAMMetrics;
+import org.eclipse.jakarta.IAM.controllers.IAMRepository;
+import org.eclipse.jakarta.IAM.entities.Identity;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs Argon2 hashing and verification on a dedicated executor whose size is
+ * derived from a native memory budget, so that concurrent logins cannot ask
+ * for more memory than the node can afford.
+ *
+ * When every worker is busy and the wait queue is full, callers are rejected
+ * immediately with 503 + Retry-After instead of piling up on the request threads.
+ * The asynchronous variants return without blocking the caller; the database
+ * write of a rehashed password then runs on the container's managed executor.
+ *
+ * With {@code iam.argon2.calibrate=true} the Argon2 parameters are measured on
+ * this host at the first startup and pinned in {@code iam.argon2.calibration-file}
+ * (by default in the server data directory); later starts, and nodes sharing the
+ * file, reuse them instead of measuring again. The first node holds a lock on a
+ * sibling {@code .lock} file while it measures and publishes the result with an
+ * atomic replace, so nodes starting together all end up with the same parameters
+ * and never read a partial file. Stored hashes made with a lower
+ * memory, iteration or parallelism cost are upgraded transparently on the next
+ * successful login.
+ */
+@ApplicationScoped
+public class PasswordHashingService {
+
+    private static final Logger LOGGER = Logger.getLogger(PasswordHashingService.class.getName());
+
+    // ===== Configurable admission limits (system properties) =====
+    private static final long MEMORY_BUDGET_KB = Long.getLong("iam.argon2.memory-budget-mb", 1024L) * 1024L;
+    private static final int QUEUE_CAPACITY = Integer.getInteger("iam.argon2.queue-capacity", 64);
+    private static final long RETRY_AFTER_SECONDS = Long.getLong("iam.argon2.retry-after-seconds", 1L);
+
+    // ===== Startup calibration (system properties) =====
+    private static final boolean CALIBRATE = Boolean.getBoolean("iam.argon2.calibrate");
+    private static final long TARGET_MILLIS = Long.getLong("iam.argon2.target-ms", 250L);
+    private static final int MAX_MEMORY_KB = Integer.getInteger("iam.argon2.max-memory-kb", 65536);
+    private static final int MAX_PARALLELISM = Integer.getInteger("iam.argon2.max-parallelism", 4);
+    private static final String CALIBRATION_FILE = System.getProperty("iam.argon2.calibration-file",
+            System.getProperty("jboss.server.data.dir", ".") + "/iam-argon2.properties");
+
+    @Resource
+    private ManagedThreadFactory threadFactory;
+
+    @Resource
+    private ManagedExecutorService managedExecutor;
+
+    @Inject
+    private IAMMetrics metrics;
+
+    @Inject
+    private IAMRepository iamRepository;
+
+    private ThreadPoolExecutor executor;
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAccumulator maxWaitNanos = new LongAccumulator(Math::max, 0L);
+    private LongAdder rejected;
+    private LongAdder rehashed;
+
+    @PostConstruct
+    public void start() {
+        if (CALIBRATE) {
+            calibrate();
+        }
+        int workers = workerCount();
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+
+        rejected = metrics.counter("iam.argon2.rejected");
+        rehashed = metrics.counter("iam.argon2.rehashed");
+        metrics.gauge("iam.argon2.workers", () -> executor.getMaximumPoolSize());
+        metrics.gauge("iam.argon2.active", () -> executor.getActiveCount());
+        metrics.gauge("iam.argon2.queue.depth", () -> executor.getQueue().size());
+        metrics.gauge("iam.argon2.completed", completed::sum);
+        metrics.gauge("iam.argon2.wait.avg.ms", this::averageWaitMillis);
+        metrics.gauge("iam.argon2.wait.max.ms", () -> maxWaitNanos.get() / 1_000_000.0);
+
+        LOGGER.info("Argon2 executor started with " + workers + " workers (budget "
+                + MEMORY_BUDGET_KB / 1024 + " MB, queue " + QUEUE_CAPACITY + ")");
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    // ===== Hash a password =====
+    public String hash(char[] clientPassword) {
+        return await(hashAsync(clientPassword));
+    }
+
+    public CompletableFuture<String> hashAsync(char[] clientPassword) {
+        return submit(() -> Argon2Utility.hash(clientPassword), clientPassword);
+    }
+
+    // ===== Check a password against a hash =====
+    public boolean check(String serverHash, char[] clientPassword) {
+        return await(submit(() -> Argon2Utility.check(serverHash, clientPassword), clientPassword));
+    }
+
+    /**
+     * Verifies the password of an identity. When the stored hash was made with
+     * outdated parameters, it is replaced by a fresh hash and saved.
+     */
+    public boolean verify(Identity identity, char[] clientPassword) {
+        String serverHash = identity.getPassword();
+        return upgrade(identity, serverHash, await(checkAndRehash(serverHash, clientPassword)));
+    }
+
+    public CompletableFuture<Boolean> verifyAsync(Identity identity, char[] clientPassword) {
+        String serverHash = identity.getPassword();
+        return checkAndRehash(serverHash, clientPassword)
+                .thenApplyAsync(verified -> upgrade(identity, serverHash, verified), managedExecutor);
+    }
+
+    // ===== Internal helpers =====
+    private static void calibrate() {
+        Path file = Path.of(CALIBRATION_FILE).toAbsolutePath();
+        Path lockFile = file.resolveSibling(file.getFileName() + ".lock");
+        Argon2Utility.Parameters calibrated = null;
+        try {
+            Files.createDirectories(file.getParent());
+            // Nodes starting together wait here; all but the first read the parameters it pinned
+            try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                 FileLock ignored = channel.lock()) {
+                Argon2Utility.Parameters parameters = readPinned(file);
+                if (parameters != null) {
+                    Argon2Utility.use(parameters);
+                    LOGGER.info("Argon2 parameters pinned by " + file + ": " + parameters);
+                    return;
+                }
+                calibrated = Argon2Utility.calibrate(TARGET_MILLIS, MAX_MEMORY_KB, MAX_PARALLELISM);
+                writePinned(file, calibrated);
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Could not pin the Argon2 calibration in " + file, e);
+            if (calibrated == null) {
+                Argon2Utility.calibrate(TARGET_MILLIS, MAX_MEMORY_KB, MAX_PARALLELISM);
+            }
+        }
+    }
+
+    private static Argon2Utility.Parameters readPinned(Path file) {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        Properties pinned = new Properties();
+        try (Reader reader = Files.newBufferedReader(file)) {
+            pinned.load(reader);
+            return new Argon2Utility.Parameters(
+                    Integer.parseInt(pinned.getProperty("iterations")),
+                    Integer.parseInt(pinned.getProperty("memory-kb")),
+                    Integer.parseInt(pinned.getProperty("parallelism")));
+        } catch (IOException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Replacing unreadable Argon2 calibration " + file, e);
+            return null;
+        }
+    }
+
+    private static void writePinned(Path file, Argon2Utility.Parameters parameters) throws IOException {
+        Properties pinned = new Properties();
+        pinned.setProperty("iterations", Integer.toString(parameters.iterations()));
+        pinned.setProperty("memory-kb", Integer.toString(parameters.memory()));
+        pinned.setProperty("parallelism", Integer.toString(parameters.parallelism()));
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temp)) {
+            pinned.store(writer, "Argon2 parameters calibrated for a max hashing time <= " + TARGET_MILLIS + " ms");
+        }
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private CompletableFuture<String> checkAndRehash(String serverHash, char[] clientPassword) {
+        return submit(() -> Argon2Utility.checkAndRehash(serverHash, clientPassword), clientPassword);
+    }
+
+    private boolean upgrade(Identity identity, String serverHash, String verified) {
+        if (verified == null) {
+            return false;
+        }
+        if (!verified.equals(serverHash)) {
+            identity.setPassword(verified);
+            iamRepository.save(identity);
+            rehashed.increment();
+        }
+        return true;
+    }
+
+    private int workerCount() {
+        Argon2Utility.Parameters parameters = Argon2Utility.parameters();
+        long affordable = MEMORY_BUDGET_KB / parameters.memory();
+        int cores = Runtime.getRuntime().availableProcessors() / parameters.parallelism();
+        return (int) Math.max(1, Math.min(affordable, cores));
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> task, char[] clientPassword) {
+        long enqueued = System.nanoTime();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                long waited = System.nanoTime() - enqueued;
+                waitNanos.add(waited);
+                maxWaitNanos.accumulate(waited);
+                try {
+                    return task.get();
+                } finally {
+                    completed.increment();
+                }
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            Arrays.fill(clientPassword, '\0');
+            rejected.increment();
+            throw new ServiceUnavailableException(RETRY_AFTER_SECONDS);
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private double averageWaitMillis() {
+        long count = completed.sum();
+        return count == 0 ? 0.0 : waitNanos.sum() / (count * 1_000_000.0);
+    }
+}
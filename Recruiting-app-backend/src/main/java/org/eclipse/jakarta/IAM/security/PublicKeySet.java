@@ -0,0 +1,10 @@
+package org.eclipse.jakarta.IAM.security;
+
+/**
+ * JWKS document of the public signing keys, serialized once per key ring
+ * change and served as is. {@code json} must not be modified.
+ *
+ * @param etag strong entity tag value derived from the document content
+ */
+public record PublicKeySet(byte[] json, String etag) {
+}
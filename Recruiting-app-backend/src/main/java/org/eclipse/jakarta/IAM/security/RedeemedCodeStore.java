@@ -0,0 +1,115 @@
+package org.eclipse.jakarta.IAM.security;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.jakarta.IAM.controllers.IAMMetrics;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Authorization codes already exchanged, kept until they expire so that a code
+ * can be redeemed only once, on whichever node.
+ *
+ * The in-memory store answers replays on this node without a query. Redeeming
+ * also records the code ID in the shared {@code revoked_tokens} table through
+ * the {@link RevocationStore}, whose primary key settles a race between nodes.
+ *
+ * Entries expire through a hashed timing wheel of one-second slots spanning the
+ * code lifetime: each entry is queued in the slot of its expiry second, and the
+ * wheel is advanced lazily by the calls themselves, dropping only the entries of
+ * the seconds that elapsed. Memory is bounded by the codes issued over one
+ * lifetime and no call ever scans the whole store.
+ */
+@ApplicationScoped
+public class RedeemedCodeStore {
+
+    private record Entry(String codeId, long expiresAt) {
+    }
+
+    private final int slotCount = Integer.highestOneBit(AuthorizationCode.LIFETIME_SECONDS + 1) << 1;
+    private final int slotMask = slotCount - 1;
+    private final ConcurrentHashMap<String, Long> redeemed = new ConcurrentHashMap<>();
+    @SuppressWarnings("unchecked")
+    private final ConcurrentLinkedQueue<Entry>[] slots = new ConcurrentLinkedQueue[slotCount];
+    private final AtomicLong advancedTo = new AtomicLong(System.currentTimeMillis() / 1000L);
+
+    @Inject
+    private RevocationStore revocationStore;
+
+    @Inject
+    private IAMMetrics metrics;
+
+    private LongAdder replays;
+
+    @PostConstruct
+    public void start() {
+        for (int i = 0; i < slotCount; i++) {
+            slots[i] = new ConcurrentLinkedQueue<>();
+        }
+        replays = metrics.counter("iam.codes.replays");
+        metrics.gauge("iam.codes.redeemed", redeemed::size);
+    }
+
+    // ===== Cheap pre-check, before any decryption or lookup: this node only =====
+    public boolean isRedeemed(String codeId) {
+        advance(System.currentTimeMillis() / 1000L);
+        if (redeemed.containsKey(codeId)) {
+            replays.increment();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Atomically records the code as redeemed until {@code expiresAt} (epoch second).
+     *
+     * @return false when the code was already redeemed, e.g. by a concurrent exchange here or on another node
+     */
+    public boolean markRedeemed(String codeId, long expiresAt) {
+        long now = System.currentTimeMillis() / 1000L;
+        advance(now);
+        // Past the wheel span the slot would be swept too early; codes never live that long
+        long expiry = Math.min(Math.max(expiresAt, now) + 1, now + slotMask);
+        if (redeemed.putIfAbsent(codeId, expiry) != null) {
+            replays.increment();
+            return false;
+        }
+        slots[(int) (expiry & slotMask)].add(new Entry(codeId, expiry));
+        // Kept locally either way: a code redeemed on another node stays redeemed here
+        boolean recorded;
+        try {
+            recorded = revocationStore.revoke(codeId, expiry);
+        } catch (RuntimeException e) {
+            // Not redeemed after all: the database failed, and the client may retry the exchange
+            redeemed.remove(codeId, expiry);
+            throw e;
+        }
+        if (!recorded) {
+            replays.increment();
+            return false;
+        }
+        return true;
+    }
+
+    // ===== Internal helpers =====
+    private void advance(long now) {
+        long from = advancedTo.get();
+        if (now <= from || !advancedTo.compareAndSet(from, now)) {
+            return;
+        }
+        // Seconds (from, now], at most one turn of the wheel
+        for (long second = Math.max(from + 1, now - slotMask); second <= now; second++) {
+            slots[(int) (second & slotMask)].removeIf(entry -> {
+                if (entry.expiresAt() > now) {
+                    return false; // queued by a racing call for the next turn of the wheel
+                }
+                redeemed.remove(entry.codeId(), entry.expiresAt());
+                return true;
+            });
+        }
+    }
+}
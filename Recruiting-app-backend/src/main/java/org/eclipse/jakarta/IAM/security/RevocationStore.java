@@ -0,0 +1,176 @@
+package org.eclipse.jakarta.IAM.security;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import jakarta.enterprise.concurrent.ManagedScheduledExecutorService;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.PersistenceException;
+import jakarta.transaction.TransactionalException;
+import org.eclipse.jakarta.IAM.controllers.IAMMetrics;
+import org.eclipse.jakarta.IAM.controllers.IAMRepository;
+import org.eclipse.jakarta.IAM.entities.RevokedToken;
+import org.hibernate.exception.ConstraintViolationException;
+
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * Revoked token IDs (refresh token jtis and families), persisted in the
+ * {@code revoked_tokens} table and fronted by an in-memory Bloom filter.
+ *
+ * The filter answers the common "not revoked" case with a few memory reads;
+ * only probable hits are confirmed against the table. Revocations made by other
+ * nodes are pulled into the filter every {@code iam.revocation.sync-seconds},
+ * and the filter is rebuilt from the unexpired rows every
+ * {@code iam.revocation.rebuild-seconds} since a Bloom filter cannot forget.
+ */
+@ApplicationScoped
+public class RevocationStore {
+
+    private static final Logger LOGGER = Logger.getLogger(RevocationStore.class.getName());
+
+    // ===== Filter sizing and refresh (system properties) =====
+    private static final long EXPECTED_ENTRIES = Long.getLong("iam.revocation.expected-entries", 1_000_000L);
+    private static final double FALSE_POSITIVE_RATE =
+            Double.parseDouble(System.getProperty("iam.revocation.false-positive-rate", "0.01"));
+    private static final long SYNC_SECONDS = Long.getLong("iam.revocation.sync-seconds", 5L);
+    private static final long REBUILD_SECONDS = Long.getLong("iam.revocation.rebuild-seconds", 3600L);
+    // Rows are pulled again over this margin to absorb clock differences between nodes
+    private static final long SYNC_OVERLAP_SECONDS = 30L;
+
+    @Resource
+    private ManagedScheduledExecutorService scheduler;
+
+    @Inject
+    private IAMRepository iamRepository;
+
+    @Inject
+    private IAMMetrics metrics;
+
+    private volatile BloomFilter filter;
+    private volatile LocalDateTime syncedUntil;
+    private ScheduledFuture<?> syncTask;
+    private ScheduledFuture<?> rebuildTask;
+    private final LongAdder entries = new LongAdder();
+    private LongAdder checks;
+    private LongAdder filterNegatives;
+    private LongAdder falsePositives;
+
+    @PostConstruct
+    public void start() {
+        checks = metrics.counter("iam.revocation.checks");
+        filterNegatives = metrics.counter("iam.revocation.filter.negatives");
+        falsePositives = metrics.counter("iam.revocation.filter.false-positives");
+        metrics.gauge("iam.revocation.entries", entries::sum);
+        metrics.gauge("iam.revocation.filter.bits", () -> filter.bitSize());
+
+        rebuild();
+        syncTask = scheduler.scheduleWithFixedDelay(ScheduledTasks.guarded(this::sync, "Revocation filter sync"),
+                SYNC_SECONDS, SYNC_SECONDS, TimeUnit.SECONDS);
+        rebuildTask = scheduler.scheduleWithFixedDelay(
+                ScheduledTasks.guarded(this::rebuild, "Revocation filter rebuild"),
+                REBUILD_SECONDS, REBUILD_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        syncTask.cancel(false);
+        rebuildTask.cancel(false);
+    }
+
+    // ===== Revocation check: memory only unless the filter has a probable hit =====
+    public boolean isRevoked(String id) {
+        checks.increment();
+        if (!filter.mightContain(id)) {
+            filterNegatives.increment();
+            return false;
+        }
+        boolean revoked = iamRepository.isRevoked(id);
+        if (!revoked) {
+            falsePositives.increment();
+        }
+        return revoked;
+    }
+
+    /**
+     * Revokes the ID until {@code expiresAt} (epoch second).
+     *
+     * Only a duplicate key counts as an earlier revocation: any other database
+     * failure is thrown, so that callers never take it for a replay.
+     *
+     * @return false when the ID was already revoked, here or on another node
+     */
+    public boolean revoke(String id, long expiresAt) {
+        LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+        boolean revoked;
+        try {
+            revoked = iamRepository.revoke(new RevokedToken(id,
+                    now, LocalDateTime.ofEpochSecond(expiresAt, 0, ZoneOffset.UTC)));
+        } catch (PersistenceException | TransactionalException e) {
+            // Lost a concurrent insert of the same ID
+            if (!isDuplicate(e)) {
+                throw e;
+            }
+            revoked = false;
+        }
+        filter.put(id);
+        if (revoked) {
+            entries.increment();
+        }
+        return revoked;
+    }
+
+    // ===== Internal helpers =====
+    private void sync() {
+        LocalDateTime since = syncedUntil;
+        LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+        BloomFilter current = filter;
+        List<String> ids = iamRepository.findRevokedTokenIds(since.minusSeconds(SYNC_OVERLAP_SECONDS));
+        ids.forEach(current::put);
+        syncedUntil = now;
+    }
+
+    private void rebuild() {
+        LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+        int purged = iamRepository.deleteRevokedTokensExpiredBefore(now);
+        List<String> ids = iamRepository.findRevokedTokenIds(LocalDateTime.ofInstant(Instant.EPOCH, ZoneOffset.UTC));
+        BloomFilter rebuilt = BloomFilter.create(Math.max(EXPECTED_ENTRIES, 2L * ids.size()), FALSE_POSITIVE_RATE);
+        ids.forEach(rebuilt::put);
+        filter = rebuilt;
+        // Anything revoked while loading is picked up by the next sync
+        syncedUntil = now;
+        entries.reset();
+        entries.add(ids.size());
+        LOGGER.info("Revocation filter rebuilt with " + ids.size() + " entries (" + purged + " expired purged, "
+                + rebuilt.bitSize() / 8 / 1024 + " KB)");
+    }
+
+    /**
+     * Whether the failure is a unique constraint violation, as reported by Hibernate
+     * or by the driver: SQLState 23505, or 23000 with the duplicate-key error code of
+     * MySQL/MariaDB (1062) or Oracle (1). NOT NULL, foreign key and check violations
+     * are not.
+     */
+    static boolean isDuplicate(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation
+                    && violation.getKind() == ConstraintViolationException.ConstraintKind.UNIQUE) {
+                return true;
+            }
+            if (cause instanceof SQLException sql && ("23505".equals(sql.getSQLState())
+                    || "23000".equals(sql.getSQLState()) && (sql.getErrorCode() == 1062 || sql.getErrorCode() == 1))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
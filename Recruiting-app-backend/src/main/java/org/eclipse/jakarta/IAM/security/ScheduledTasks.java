@@ -0,0 +1,27 @@
+package org.eclipse.jakarta.IAM.security;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Periodic tasks handed to the managed scheduler. An exception escaping a run
+ * cancels every later run of a periodic task, so each one is wrapped to log its
+ * failure and try again at the next period.
+ */
+public final class ScheduledTasks {
+
+    private static final Logger LOGGER = Logger.getLogger(ScheduledTasks.class.getName());
+
+    private ScheduledTasks() {
+    }
+
+    public static Runnable guarded(Runnable task, String name) {
+        return () -> {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.SEVERE, name + " failed", e);
+            }
+        };
+    }
+}
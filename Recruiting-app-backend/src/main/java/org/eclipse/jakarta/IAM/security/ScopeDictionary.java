@@ -0,0 +1,72 @@
+package org.eclipse.jakarta.IAM.security;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Numbering of the OAuth scopes used by compact tokens: scope {@code i} of the
+ * dictionary is bit {@code 1L << i} of the scope mask. Scopes are only ever
+ * appended and every change bumps the version carried by the tokens, so masks
+ * minted with an older version decode unchanged, and a token minted by a node
+ * with a newer dictionary is recognizable.
+ */
+public final class ScopeDictionary {
+
+    public static final ScopeDictionary CURRENT = new ScopeDictionary(1,
+            List.of("profile.read", "cv.read", "cv.share", "jobs.read", "jobs.write"));
+
+    private final int version;
+    private final List<String> scopes;
+    private final Map<String, Long> bits = new HashMap<>();
+
+    ScopeDictionary(int version, List<String> scopes) {
+        if (scopes.size() > Long.SIZE) {
+            throw new IllegalArgumentException("At most " + Long.SIZE + " scopes fit in a mask");
+        }
+        this.version = version;
+        this.scopes = List.copyOf(scopes);
+        for (int i = 0; i < scopes.size(); i++) {
+            bits.put(scopes.get(i), 1L << i);
+        }
+    }
+
+    public int version() {
+        return version;
+    }
+
+    public List<String> scopes() {
+        return scopes;
+    }
+
+    // ===== Encoding, split between known scopes and the ones the dictionary lacks =====
+    public long mask(String scopes) {
+        long mask = 0L;
+        for (String scope : split(scopes)) {
+            mask |= bits.getOrDefault(scope, 0L);
+        }
+        return mask;
+    }
+
+    public String unknown(String scopes) {
+        List<String> unknown = new ArrayList<>();
+        for (String scope : split(scopes)) {
+            if (!bits.containsKey(scope)) unknown.add(scope);
+        }
+        return String.join(" ", unknown);
+    }
+
+    // ===== Decoding a mask back to the space-separated scope string =====
+    public String names(long mask) {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < scopes.size(); i++) {
+            if ((mask & 1L << i) != 0) names.add(scopes.get(i));
+        }
+        return String.join(" ", names);
+    }
+
+    private static String[] split(String scopes) {
+        return scopes == null || scopes.isBlank() ? new String[0] : scopes.trim().split("\\s+");
+    }
+}
@@ -0,0 +1,146 @@
+package org.eclipse.jakarta.IAM.security;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.OctetSequenceKey;
+import com.nimbusds.jose.jwk.gen.OctetSequenceKeyGenerator;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+/**
+ * Key material shared by every IAM node pointing at the same file, enabled with
+ * the {@code iam.keystore.path} system property.
+ *
+ * The file is a JWK set holding the private signing keys and the authorization
+ * code key. Writers hold an exclusive lock on a sibling {@code .lock} file, re-read
+ * the latest contents and replace the file atomically, so readers never see a
+ * partial write and concurrent rotations on several nodes never lose keys.
+ */
+final class SharedKeyStore {
+
+    static final String AUTHORIZATION_CODE_KID = "authorization-code";
+
+    private final Path path;
+    private final Path lockPath;
+
+    SharedKeyStore(Path path) {
+        this.path = path.toAbsolutePath();
+        this.lockPath = this.path.resolveSibling(this.path.getFileName() + ".lock");
+    }
+
+    // ===== Configured store, null when keys stay in memory =====
+    static SharedKeyStore configured() {
+        String path = System.getProperty("iam.keystore.path");
+        return path == null || path.isBlank() ? null : new SharedKeyStore(Path.of(path));
+    }
+
+    Path path() {
+        return path;
+    }
+
+    /**
+     * Applies {@code update} to the stored signing keys under the file lock and
+     * writes the result back if it differs. Returns the keys as stored.
+     */
+    List<JWK> updateSigningKeys(UnaryOperator<List<JWK>> update) {
+        return locked(() -> {
+            List<JWK> keys = read().getKeys();
+            List<JWK> signingKeys = keys.stream().filter(key -> KeyUse.SIGNATURE.equals(key.getKeyUse())).toList();
+            List<JWK> updated = update.apply(signingKeys);
+            if (!updated.equals(signingKeys)) {
+                List<JWK> others = new ArrayList<>(keys);
+                others.removeAll(signingKeys);
+                others.addAll(updated);
+                write(new JWKSet(others));
+            }
+            return updated;
+        });
+    }
+
+    // ===== ChaCha20 key of the authorization codes, created by the first node =====
+    SecretKey authorizationCodeKey() {
+        OctetSequenceKey key = locked(() -> {
+            JWKSet stored = read();
+            JWK existing = stored.getKeyByKeyId(AUTHORIZATION_CODE_KID);
+            if (existing != null) {
+                return existing.toOctetSequenceKey();
+            }
+            try {
+                OctetSequenceKey generated = new OctetSequenceKeyGenerator(256)
+                        .keyUse(KeyUse.ENCRYPTION).keyID(AUTHORIZATION_CODE_KID).generate();
+                List<JWK> keys = new ArrayList<>(stored.getKeys());
+                keys.add(generated);
+                write(new JWKSet(keys));
+                return generated;
+            } catch (JOSEException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        return new SecretKeySpec(key.toByteArray(), "ChaCha20");
+    }
+
+    // ===== Internal helpers =====
+    private interface LockedAction<T> {
+        T run() throws IOException;
+    }
+
+    private <T> T locked(LockedAction<T> action) {
+        try {
+            Files.createDirectories(path.getParent());
+            try (FileChannel channel = FileChannel.open(lockPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                 FileLock ignored = channel.lock()) {
+                return action.run();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot update key store " + path, e);
+        }
+    }
+
+    private JWKSet read() throws IOException {
+        if (!Files.exists(path)) {
+            return new JWKSet();
+        }
+        try {
+            return JWKSet.parse(Files.readString(path, StandardCharsets.UTF_8));
+        } catch (ParseException e) {
+            throw new IOException("Corrupted key store " + path, e);
+        }
+    }
+
+    private void write(JWKSet keys) throws IOException {
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        Files.deleteIfExists(temp);
+        createOwnerOnly(temp);
+        // Private keys included: the file must never be readable by other users
+        Files.writeString(temp, keys.toString(false), StandardCharsets.UTF_8);
+        Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static void createOwnerOnly(Path file) throws IOException {
+        try {
+            Files.createFile(file, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+        } catch (UnsupportedOperationException e) {
+            Files.createFile(file);
+        } catch (FileAlreadyExistsException e) {
+            throw new IOException("Concurrent write to key store " + file, e);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package org.eclipse.jakarta.IAM.security;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.crypto.ECDSASigner;
+import com.nimbusds.jose.crypto.ECDSAVerifier;
+import com.nimbusds.jose.crypto.Ed25519Signer;
+import com.nimbusds.jose.crypto.Ed25519Verifier;
+import com.nimbusds.jose.crypto.MACSigner;
+import com.nimbusds.jose.crypto.MACVerifier;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import com.nimbusds.jose.jwk.gen.OctetKeyPairGenerator;
+import com.nimbusds.jose.jwk.gen.OctetSequenceKeyGenerator;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Optional;
+
+/**
+ * JWS algorithms the token manager can sign with, selected with the
+ * {@code iam.jwt.algorithm} system property.
+ *
+ * EdDSA and ES256 publish their public keys in the JWKS document. HS256 keys
+ * are shared secrets and are never published: use it only for trusted internal
+ * audiences that receive the key out of band.
+ */
+public enum SigningAlgorithm {
+
+    EdDSA(JWSAlgorithm.EdDSA, 64) {
+        @Override
+        public JWK generate(String kid, Date expiresAt) throws JOSEException {
+            return new OctetKeyPairGenerator(Curve.Ed25519).keyUse(KeyUse.SIGNATURE).keyID(kid)
+                    .algorithm(jwsAlgorithm()).expirationTime(expiresAt).generate();
+        }
+
+        @Override
+        public JWSSigner signer(JWK key) throws JOSEException {
+            return new Ed25519Signer(key.toOctetKeyPair());
+        }
+
+        @Override
+        public JWSVerifier verifier(JWK key) throws JOSEException {
+            return new Ed25519Verifier(key.toOctetKeyPair().toPublicJWK());
+        }
+    },
+
+    ES256(JWSAlgorithm.ES256, 64) {
+        @Override
+        public JWK generate(String kid, Date expiresAt) throws JOSEException {
+            return new ECKeyGenerator(Curve.P_256).keyUse(KeyUse.SIGNATURE).keyID(kid)
+                    .algorithm(jwsAlgorithm()).expirationTime(expiresAt).generate();
+        }
+
+        @Override
+        public JWSSigner signer(JWK key) throws JOSEException {
+            return new ECDSASigner(key.toECKey());
+        }
+
+        @Override
+        public JWSVerifier verifier(JWK key) throws JOSEException {
+            return new ECDSAVerifier(key.toECKey().toPublicJWK());
+        }
+    },
+
+    HS256(JWSAlgorithm.HS256, 32) {
+        @Override
+        public JWK generate(String kid, Date expiresAt) throws JOSEException {
+            return new OctetSequenceKeyGenerator(256).keyUse(KeyUse.SIGNATURE).keyID(kid)
+                    .algorithm(jwsAlgorithm()).expirationTime(expiresAt).generate();
+        }
+
+        @Override
+        public JWSSigner signer(JWK key) throws JOSEException {
+            return new MACSigner(key.toOctetSequenceKey());
+        }
+
+        @Override
+        public JWSVerifier verifier(JWK key) throws JOSEException {
+            return new MACVerifier(key.toOctetSequenceKey());
+        }
+
+        @Override
+        public Optional<JWK> publicKey(JWK key) {
+            return Optional.empty();
+        }
+    };
+
+    private final JWSAlgorithm jwsAlgorithm;
+    private final int signatureLength;
+
+    SigningAlgorithm(JWSAlgorithm jwsAlgorithm, int signatureLength) {
+        this.jwsAlgorithm = jwsAlgorithm;
+        this.signatureLength = signatureLength;
+    }
+
+    public JWSAlgorithm jwsAlgorithm() {
+        return jwsAlgorithm;
+    }
+
+    // ===== Size of a signature in bytes, before base64url encoding =====
+    public int signatureLength() {
+        return signatureLength;
+    }
+
+    // ===== Key handling specific to each algorithm =====
+    public abstract JWK generate(String kid, Date expiresAt) throws JOSEException;
+
+    public abstract JWSSigner signer(JWK key) throws JOSEException;
+
+    public abstract JWSVerifier verifier(JWK key) throws JOSEException;
+
+    // ===== Public part of a key as published in the JWKS document, if any =====
+    public Optional<JWK> publicKey(JWK key) {
+        return Optional.of(key.toPublicJWK());
+    }
+
+    // ===== Lookup by configured name, case-insensitive =====
+    public static SigningAlgorithm named(String name) {
+        return Arrays.stream(values())
+                .filter(algorithm -> algorithm.name().equalsIgnoreCase(name))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unsupported signing algorithm: " + name));
+    }
+}
@@ -0,0 +1,43 @@
+package org.eclipse.jakarta.IAM.security;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JOSEObjectType;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.jwk.JWK;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A signing key of the key ring, with the epoch second after which it no longer
+ * signs new tokens. The JWS header, its encoded form, the signer and the verifier
+ * are built once per key by its algorithm and shared by every token.
+ *
+ * The algorithm and expiry travel with the JWK itself ({@code alg} and {@code exp}
+ * parameters), so keys read back from the shared key store are self-describing.
+ */
+record SigningKey(JWK key, SigningAlgorithm algorithm, JWSHeader header, byte[] signingInputPrefix,
+                  JWSSigner signer, JWSVerifier verifier, long expiresAt) {
+
+    static SigningKey of(JWK key) throws JOSEException {
+        SigningAlgorithm algorithm = SigningAlgorithm.named(key.getAlgorithm().getName());
+        long expiresAt = key.getExpirationTime().getTime() / 1000L;
+        JWSHeader header = new JWSHeader.Builder(algorithm.jwsAlgorithm())
+                .keyID(key.getKeyID())
+                .type(JOSEObjectType.JWT)
+                .build();
+        // Encoded header and separator, the constant start of every signing input
+        byte[] signingInputPrefix = (header.toBase64URL() + ".").getBytes(StandardCharsets.US_ASCII);
+        return new SigningKey(key, algorithm, header, signingInputPrefix,
+                algorithm.signer(key), algorithm.verifier(key), expiresAt);
+    }
+
+    String kid() {
+        return key.getKeyID();
+    }
+
+    boolean hasNotExpired(long now) {
+        return now <= expiresAt;
+    }
+}
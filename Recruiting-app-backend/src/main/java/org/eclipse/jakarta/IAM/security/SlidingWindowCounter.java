@@ -0,0 +1,109 @@
+package org.eclipse.jakarta.IAM.security;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Approximate per-key event counter over a sliding time window, with a fixed
+ * memory footprint and no locks.
+ *
+ * Keys are hashed into a small count-min sketch: {@code ROWS} independent rows of
+ * {@code width} slots, the estimate of a key being the minimum over its slots so
+ * that collisions rarely inflate it. Each row hashes the UTF-16 code units of the
+ * key with its own randomly seeded MurmurHash3, so keys colliding in one row, by
+ * chance or by design, are unlikely to collide in the others. Each slot is two
+ * adjacent longs, the counts of the current and of the previous fixed window,
+ * each packed as {@code window << 32 | count}; the sliding estimate weights the
+ * previous window by the share of it that still overlaps the sliding one.
+ */
+final class SlidingWindowCounter {
+
+    private static final int ROWS = 2;
+    private static final long COUNT_MASK = 0xFFFFFFFFL;
+
+    private final AtomicLongArray slots;
+    private final int width;
+    private final long windowMillis;
+    private final int[] seeds = new int[ROWS];
+
+    SlidingWindowCounter(int width, long windowMillis) {
+        this.width = Integer.highestOneBit(Math.max(width, 2));
+        this.windowMillis = windowMillis;
+        // Two longs per slot: current window, previous window
+        this.slots = new AtomicLongArray(ROWS * this.width * 2);
+        for (int row = 0; row < ROWS; row++) {
+            seeds[row] = ThreadLocalRandom.current().nextInt();
+        }
+    }
+
+    // ===== Record one event for a key =====
+    void increment(String key, long nowMillis) {
+        long window = nowMillis / windowMillis;
+        for (int row = 0; row < ROWS; row++) {
+            int i = index(key, row);
+            for (;;) {
+                long current = slots.get(i);
+                if (current >>> 32 == window) {
+                    if (slots.compareAndSet(i, current, current + 1)) {
+                        break;
+                    }
+                } else if (slots.compareAndSet(i, current, window << 32 | 1)) {
+                    slots.set(i + 1, current);
+                    break;
+                }
+            }
+        }
+    }
+
+    // ===== Sliding-window estimate for a key =====
+    double estimate(String key, long nowMillis) {
+        long window = nowMillis / windowMillis;
+        double previousWeight = 1.0 - (double) (nowMillis % windowMillis) / windowMillis;
+        double estimate = Double.MAX_VALUE;
+        for (int row = 0; row < ROWS; row++) {
+            int i = index(key, row);
+            long current = slots.get(i);
+            long previous = slots.get(i + 1);
+            long currentCount = 0;
+            long previousCount = 0;
+            if (current >>> 32 == window) {
+                currentCount = current & COUNT_MASK;
+                previousCount = previous >>> 32 == window - 1 ? previous & COUNT_MASK : 0;
+            } else if (current >>> 32 == window - 1) {
+                previousCount = current & COUNT_MASK;
+            }
+            estimate = Math.min(estimate, currentCount + previousCount * previousWeight);
+        }
+        return estimate;
+    }
+
+    // ===== Internal helpers =====
+    private int index(String key, int row) {
+        return (row * width + (murmur3(key, seeds[row]) & (width - 1))) * 2;
+    }
+
+    // MurmurHash3 (x86, 32 bits), two UTF-16 code units per block
+    private static int murmur3(String key, int seed) {
+        int h = seed;
+        int length = key.length();
+        int i = 0;
+        for (; i + 1 < length; i += 2) {
+            h ^= mixBlock(key.charAt(i) | key.charAt(i + 1) << 16);
+            h = Integer.rotateLeft(h, 13) * 5 + 0xe6546b64;
+        }
+        if (i < length) {
+            h ^= mixBlock(key.charAt(i));
+        }
+        h ^= length * 2;
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    private static int mixBlock(int block) {
+        return Integer.rotateLeft(block * 0xcc9e2d51, 15) * 0x1b873593;
+    }
+}
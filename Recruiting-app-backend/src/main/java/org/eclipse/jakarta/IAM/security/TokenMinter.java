@@ -0,0 +1,255 @@
+package org.eclipse.jakarta.IAM.security;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.util.Base64URL;
+import org.eclipse.jakarta.IAM.controllers.Role;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Serializes and signs access tokens straight into byte buffers sized up front
+ * from the claims, without building a claims set, a JSON tree or a
+ * {@code SignedJWT}. The buffers belong to the call, so nothing outlives it.
+ *
+ * The encoded header of each key ({@link SigningKey#signingInputPrefix()}) and
+ * the JSON of the static claims ({@code iss}, {@code aud}) are computed once;
+ * a token only serializes its variable claims, encodes them in base64url and
+ * hands the signing input to the key's cached signer.
+ *
+ * The compact profile ({@code iam.jwt.profile=compact}) writes scopes and roles
+ * as bit masks under short claim names and leaves out the {@code upn} and
+ * {@code nbf} duplicates; scopes missing from the dictionary are kept verbatim.
+ */
+final class TokenMinter {
+
+    private static final byte[] BASE64URL =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    // Fixed claims (jti, iat, nbf, exp, masks, names and separators) take less than this
+    private static final int FIXED_CLAIMS_LENGTH = 192;
+    private final byte[] claimsPrefix;
+    private final boolean compact;
+    private final long lifetimeSeconds;
+
+    TokenMinter(String issuer, List<String> audiences, boolean compact, long lifetimeSeconds) {
+        Buffer prefix = new Buffer(256);
+        prefix.ascii("{\"iss\":").string(issuer).ascii(",\"aud\":");
+        if (audiences.size() == 1) {
+            prefix.string(audiences.get(0));
+        } else {
+            prefix.stringArray(audiences.toArray(String[]::new));
+        }
+        this.claimsPrefix = prefix.toByteArray();
+        this.compact = compact;
+        this.lifetimeSeconds = lifetimeSeconds;
+    }
+
+    String mint(SigningKey key, String tenantId, String subject, String approvedScopes, String[] roles)
+            throws JOSEException {
+        long now = System.currentTimeMillis() / 1000L;
+        // Escaped control characters take 6 bytes: sized for the worst case so that the buffer
+        // should not have to grow, ensure() remaining only as a safety net
+        int variable = length(tenantId) + 2 * length(subject) + length(approvedScopes);
+        for (String role : roles) {
+            variable += length(role) + 3;
+        }
+        Buffer payload = new Buffer(claimsPrefix.length + FIXED_CLAIMS_LENGTH + 6 * variable)
+                .bytes(claimsPrefix);
+        payload.optional("sub", subject);
+        if (compact) {
+            ScopeDictionary dictionary = ScopeDictionary.CURRENT;
+            payload.optional(JwtManager.CLAIM_TENANT, tenantId)
+                    .name(JwtManager.CLAIM_SCOPE_MASK).number(dictionary.mask(approvedScopes))
+                    .name(JwtManager.CLAIM_ROLE_MASK).number(Role.mask(roles))
+                    .name(JwtManager.CLAIM_SCOPE_VERSION).number(dictionary.version())
+                    .optional("scope", dictionary.unknown(approvedScopes));
+        } else {
+            payload.optional("upn", subject)
+                    .optional("tenant_id", tenantId)
+                    .optional("scope", approvedScopes)
+                    .name("roles").stringArray(roles);
+        }
+        payload.name("jti").uuid(UUID.randomUUID())
+                .name("iat").number(now);
+        if (!compact) {
+            payload.name("nbf").number(now);
+        }
+        payload.name("exp").number(now + lifetimeSeconds).ascii("}");
+
+        // Unpadded base64url: 4 characters per 3 bytes, rounded up
+        Buffer token = new Buffer(key.signingInputPrefix().length + (payload.length + 2) / 3 * 4
+                + 1 + (key.algorithm().signatureLength() + 2) / 3 * 4)
+                .bytes(key.signingInputPrefix());
+        token.base64Url(payload.bytes, payload.length);
+        // The signer API takes the signing input as an exact-length array
+        Base64URL signature = key.signer().sign(key.header(), token.toByteArray());
+        return token.ascii(".").ascii(signature.toString()).toAsciiString();
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+
+    // ===== Growable byte buffer =====
+    private static final class Buffer {
+
+        private byte[] bytes;
+        private int length;
+
+        Buffer(int capacity) {
+            bytes = new byte[capacity];
+        }
+
+        Buffer bytes(byte[] value) {
+            ensure(value.length);
+            System.arraycopy(value, 0, bytes, length, value.length);
+            length += value.length;
+            return this;
+        }
+
+        Buffer ascii(String value) {
+            ensure(value.length());
+            for (int i = 0; i < value.length(); i++) {
+                bytes[length++] = (byte) value.charAt(i);
+            }
+            return this;
+        }
+
+        // ===== JSON members =====
+        Buffer name(String name) {
+            ensure(1);
+            bytes[length++] = ',';
+            return string(name).ascii(":");
+        }
+
+        Buffer optional(String name, String value) {
+            return value == null || value.isEmpty() ? this : name(name).string(value);
+        }
+
+        Buffer number(long value) {
+            ensure(20);
+            if (value < 0) {
+                bytes[length++] = '-';
+                value = -value;
+            }
+            int start = length;
+            do {
+                bytes[length++] = (byte) ('0' + value % 10);
+                value /= 10;
+            } while (value != 0);
+            // Digits were written least significant first
+            for (int i = start, j = length - 1; i < j; i++, j--) {
+                byte digit = bytes[i];
+                bytes[i] = bytes[j];
+                bytes[j] = digit;
+            }
+            return this;
+        }
+
+        Buffer stringArray(String[] values) {
+            ensure(1);
+            bytes[length++] = '[';
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) ascii(",");
+                string(values[i]);
+            }
+            return ascii("]");
+        }
+
+        Buffer uuid(UUID uuid) {
+            ensure(38);
+            bytes[length++] = '"';
+            hex(uuid.getMostSignificantBits() >>> 32, 8).ascii("-");
+            hex(uuid.getMostSignificantBits() >>> 16, 4).ascii("-");
+            hex(uuid.getMostSignificantBits(), 4).ascii("-");
+            hex(uuid.getLeastSignificantBits() >>> 48, 4).ascii("-");
+            hex(uuid.getLeastSignificantBits(), 12);
+            bytes[length++] = '"';
+            return this;
+        }
+
+        /** JSON string literal, UTF-8 encoded, with quotes, backslashes and control characters escaped. */
+        Buffer string(String value) {
+            ensure(value.length() * 6 + 2);
+            bytes[length++] = '"';
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"' || c == '\\') {
+                    bytes[length++] = '\\';
+                    bytes[length++] = (byte) c;
+                } else if (c < 0x20) {
+                    bytes[length++] = '\\';
+                    bytes[length++] = 'u';
+                    hex(c, 4);
+                } else if (c < 0x80) {
+                    bytes[length++] = (byte) c;
+                } else if (c < 0x800) {
+                    bytes[length++] = (byte) (0xC0 | c >> 6);
+                    bytes[length++] = (byte) (0x80 | c & 0x3F);
+                } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                        && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                    bytes[length++] = (byte) (0xF0 | codePoint >> 18);
+                    bytes[length++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+                    bytes[length++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+                    bytes[length++] = (byte) (0x80 | codePoint & 0x3F);
+                } else if (Character.isSurrogate(c)) {
+                    bytes[length++] = '?';
+                } else {
+                    bytes[length++] = (byte) (0xE0 | c >> 12);
+                    bytes[length++] = (byte) (0x80 | c >> 6 & 0x3F);
+                    bytes[length++] = (byte) (0x80 | c & 0x3F);
+                }
+            }
+            bytes[length++] = '"';
+            return this;
+        }
+
+        // ===== Unpadded base64url of the first srcLength bytes of src =====
+        Buffer base64Url(byte[] src, int srcLength) {
+            ensure((srcLength + 2) / 3 * 4);
+            int i = 0;
+            for (; i + 2 < srcLength; i += 3) {
+                int bits = (src[i] & 0xFF) << 16 | (src[i + 1] & 0xFF) << 8 | src[i + 2] & 0xFF;
+                bytes[length++] = BASE64URL[bits >>> 18];
+                bytes[length++] = BASE64URL[bits >>> 12 & 0x3F];
+                bytes[length++] = BASE64URL[bits >>> 6 & 0x3F];
+                bytes[length++] = BASE64URL[bits & 0x3F];
+            }
+            if (i < srcLength) {
+                int bits = (src[i] & 0xFF) << 16 | (i + 1 < srcLength ? (src[i + 1] & 0xFF) << 8 : 0);
+                bytes[length++] = BASE64URL[bits >>> 18];
+                bytes[length++] = BASE64URL[bits >>> 12 & 0x3F];
+                if (i + 1 < srcLength) {
+                    bytes[length++] = BASE64URL[bits >>> 6 & 0x3F];
+                }
+            }
+            return this;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(bytes, length);
+        }
+
+        String toAsciiString() {
+            return new String(bytes, 0, length, StandardCharsets.US_ASCII);
+        }
+
+        private Buffer hex(long value, int digits) {
+            ensure(digits);
+            for (int shift = (digits - 1) * 4; shift >= 0; shift -= 4) {
+                bytes[length++] = HEX[(int) (value >>> shift) & 0xF];
+            }
+            return this;
+        }
+
+        private void ensure(int extra) {
+            if (length + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + extra));
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package org.eclipse.jakarta.IAM.security;
+
+import com.nimbusds.jwt.SignedJWT;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of tokens whose signature has already been verified, keyed by the
+ * SHA-256 digest of the serialized token. Entries expire with the token and are
+ * evicted as soon as their signing key is retired. When the cache is full, new
+ * tokens are simply verified again instead of displacing cached ones.
+ */
+final class ValidatedTokenCache {
+
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    private record Entry(SignedJWT jwt, String kid) {
+    }
+
+    private final ExpiringMap<ByteBuffer, Entry> entries;
+    private final int maxSize;
+    final LongAdder hits = new LongAdder();
+    final LongAdder misses = new LongAdder();
+
+    ValidatedTokenCache(int maxSize) {
+        this.entries = new ExpiringMap<>(maxSize);
+        this.maxSize = maxSize;
+    }
+
+    // ===== Lookup, null when the token has to be verified =====
+    SignedJWT get(String token, long nowMillis) {
+        if (maxSize <= 0) {
+            return null;
+        }
+        Entry entry = entries.get(digest(token), nowMillis);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.jwt();
+    }
+
+    void put(String token, SignedJWT jwt, String kid, long expiresAtMillis, long nowMillis) {
+        if (maxSize <= 0) {
+            return;
+        }
+        entries.put(digest(token), new Entry(jwt, kid), expiresAtMillis, nowMillis);
+    }
+
+    // ===== Drop every token signed by retired keys =====
+    void evictKeys(Collection<String> kids) {
+        if (!kids.isEmpty()) {
+            entries.removeIf(entry -> kids.contains(entry.kid()));
+        }
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    // ===== Internal helpers =====
+    private static ByteBuffer digest(String token) {
+        return ByteBuffer.wrap(SHA256.get().digest(token.getBytes(StandardCharsets.US_ASCII)));
+    }
+}
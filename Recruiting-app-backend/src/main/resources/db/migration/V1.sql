@@ -0,0 +1,46 @@
+-- Baseline schema of the iam persistence unit
+-- Statements are idempotent: on databases without transactional DDL, a node that
+-- fails half way through can run the script again.
+
+CREATE TABLE IF NOT EXISTS identities (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    username VARCHAR(191) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    provided_scopes VARCHAR(255) NOT NULL,
+    provided_scopes_mask BIGINT,
+    CONSTRAINT uk_identities_username UNIQUE (username)
+);
+
+CREATE TABLE IF NOT EXISTS tenants (
+    id SMALLINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    client_id VARCHAR(191) NOT NULL,
+    client_secret VARCHAR(255) NOT NULL,
+    redirect_uri VARCHAR(255) NOT NULL,
+    required_scopes VARCHAR(255) NOT NULL,
+    required_scopes_mask BIGINT,
+    name VARCHAR(255) NOT NULL,
+    CONSTRAINT uk_tenants_client_id UNIQUE (client_id)
+);
+
+CREATE TABLE IF NOT EXISTS issued_grants (
+    tenant_id SMALLINT NOT NULL,
+    identity_id BIGINT NOT NULL,
+    approved_scopes VARCHAR(512) NOT NULL,
+    approved_scopes_mask BIGINT,
+    issuance_date_time TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (tenant_id, identity_id),
+    CONSTRAINT fk_issued_grants_tenant FOREIGN KEY (tenant_id) REFERENCES tenants (id),
+    CONSTRAINT fk_issued_grants_identity FOREIGN KEY (identity_id) REFERENCES identities (id)
+);
+
+CREATE TABLE IF NOT EXISTS revoked_tokens (
+    id VARCHAR(36) PRIMARY KEY,
+    revoked_at TIMESTAMP(6) NOT NULL,
+    expires_at TIMESTAMP(6) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS scopes (
+    bit SMALLINT PRIMARY KEY,
+    name VARCHAR(191) NOT NULL,
+    CONSTRAINT uk_scopes_name UNIQUE (name)
+);
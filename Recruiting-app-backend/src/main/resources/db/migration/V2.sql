@@ -0,0 +1,10 @@
+-- Secondary indexes for the repository queries
+-- /authorize resolves the tenant by name
+CREATE INDEX IF NOT EXISTS idx_tenants_name ON tenants (name);
+
+-- All the grants of a user; lookups by tenant use the primary key (tenant_id, identity_id)
+CREATE INDEX IF NOT EXISTS idx_issued_grants_identity ON issued_grants (identity_id);
+
+-- Revocation sync (revoked since) and purge (expired before)
+CREATE INDEX IF NOT EXISTS idx_revoked_tokens_revoked_at ON revoked_tokens (revoked_at);
+CREATE INDEX IF NOT EXISTS idx_revoked_tokens_expires_at ON revoked_tokens (expires_at);
@@ -0,0 +1,77 @@
+package org.eclipse.jakarta.IAM.boundaries;
+
+import org.eclipse.jakarta.IAM.security.AuthorizationCode;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The authorization code flow as its data travels: the request accepted by
+ * {@code /authorize} goes through the context cookie to {@code /login}, which
+ * issues a code bound to the PKCE challenge, and {@code /oauth/token} opens the
+ * code with the verifier.
+ */
+class AuthorizationContextTest {
+
+    private static final String VERIFIER = "dBjftJeZ4CVP-mB92K27uhbUJU1p1r_wW1gFWFOEjXk";
+
+    @Test
+    void authorizeLoginTokenRoundTrip() throws Exception {
+        String challenge = challengeOf(VERIFIER);
+        assertTrue(AuthorizationCode.isChallenge(challenge));
+
+        // /authorize
+        String cookie = new AuthorizationContext("recruiting-app", "http://localhost/callback",
+                "profile.read cv.read", challenge).toCookieValue();
+
+        // /login
+        AuthorizationContext context = AuthorizationContext.fromCookieValue(cookie);
+        assertNotNull(context);
+        String code = context.issueCode("alice@example.com");
+
+        // /oauth/token
+        AuthorizationCode decoded = AuthorizationCode.decode(code, VERIFIER);
+        assertNotNull(decoded);
+        assertEquals("recruiting-app", decoded.tenantName());
+        assertEquals("alice@example.com", decoded.identityUsername());
+        assertEquals("profile.read cv.read", decoded.approvedScopes());
+        assertEquals("http://localhost/callback", decoded.redirectUri());
+        assertTrue(decoded.expirationDate() > System.currentTimeMillis() / 1000L);
+
+        assertNull(AuthorizationCode.decode(code, "another-verifier"));
+    }
+
+    @Test
+    void emptyScopeSurvivesTheCookie() throws Exception {
+        String cookie = new AuthorizationContext("recruiting-app", "http://localhost/callback",
+                null, challengeOf(VERIFIER)).toCookieValue();
+
+        AuthorizationContext context = AuthorizationContext.fromCookieValue(cookie);
+        assertNotNull(context);
+        assertEquals("", context.scope());
+        assertNotNull(AuthorizationCode.decode(context.issueCode("alice@example.com"), VERIFIER));
+    }
+
+    @Test
+    void rejectsContextsAndChallengesNotSetByAuthorize() {
+        // Cookie written before code challenges were carried
+        assertNull(AuthorizationContext.fromCookieValue("recruiting-app|http://localhost/callback|profile.read"));
+        assertFalse(AuthorizationCode.isChallenge(null));
+        assertFalse(AuthorizationCode.isChallenge(VERIFIER.substring(0, 20)));
+        assertFalse(AuthorizationCode.isChallenge("not base64!"));
+    }
+
+    private static String challengeOf(String verifier) throws NoSuchAlgorithmException {
+        byte[] digest = MessageDigest.getInstance("SHA-256").digest(verifier.getBytes(StandardCharsets.US_ASCII));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+    }
+}
@@ -0,0 +1,186 @@
+package org.eclipse.jakarta.IAM.controllers;
+
+import jakarta.persistence.EntityManager;
+import org.eclipse.jakarta.IAM.entities.Grant;
+import org.eclipse.jakarta.IAM.entities.GrantPK;
+import org.eclipse.jakarta.IAM.entities.Identity;
+import org.eclipse.jakarta.IAM.entities.Tenant;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Second-level and query cache of the {@code iam} unit: repeated lookups are
+ * served without SQL, and saves or deletes are visible to the next lookup.
+ */
+class IAMRepositoryCacheTest {
+
+    private static IAMTestUnit unit;
+    private static IAMRepository repository;
+    private static Short tenantId;
+    private static Long identityId;
+
+    @BeforeAll
+    static void start() {
+        unit = new IAMTestUnit("cache");
+        repository = unit.repository;
+
+        Tenant tenant = new Tenant();
+        tenant.setClientId("cache-client");
+        tenant.setClientSecret("secret");
+        tenant.setName("Cache Client");
+        tenant.setRedirectUri("http://localhost/callback");
+        tenant.setRequiredScopes("profile.read");
+        tenantId = unit.inTransaction(() -> repository.save(tenant)).getId();
+
+        Identity identity = new Identity();
+        identity.setUsername("cache@example.com");
+        identity.setPassword("hash");
+        identity.setProvidedScopes("profile.read cv.read");
+        identityId = unit.inTransaction(() -> repository.save(identity)).getId();
+    }
+
+    @AfterAll
+    static void stop() {
+        unit.close();
+    }
+
+    @BeforeEach
+    void clearCaches() {
+        unit.entityManagerFactory.getCache().evictAll();
+        unit.entityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegions();
+        unit.statistics().clear();
+        unit.awaitNextTimestamp();
+    }
+
+    // ===== Second-level cache =====
+    @Test
+    void secondFindOfTenantIsSecondLevelHit() {
+        unit.inTransaction(() -> repository.findTenantById(tenantId));
+        long statements = unit.statistics().getPrepareStatementCount();
+
+        Tenant tenant = unit.inTransaction(() -> repository.findTenantById(tenantId)).orElseThrow();
+
+        assertEquals("cache-client", tenant.getClientId());
+        assertEquals(1, region(Tenant.class).getHitCount());
+        assertEquals(statements, unit.statistics().getPrepareStatementCount());
+    }
+
+    @Test
+    void secondFindOfIdentityIsSecondLevelHit() {
+        unit.inTransaction(() -> repository.findIdentityById(identityId));
+        long statements = unit.statistics().getPrepareStatementCount();
+
+        Identity identity = unit.inTransaction(() -> repository.findIdentityById(identityId)).orElseThrow();
+
+        assertEquals("cache@example.com", identity.getUsername());
+        assertEquals(1, region(Identity.class).getHitCount());
+        assertEquals(statements, unit.statistics().getPrepareStatementCount());
+    }
+
+    // ===== Query cache =====
+    @Test
+    void repeatedTenantByClientIdIsQueryCacheHit() {
+        unit.inTransaction(() -> repository.findTenantByClientId("cache-client"));
+        long statements = unit.statistics().getPrepareStatementCount();
+
+        Tenant tenant = unit.inTransaction(() -> repository.findTenantByClientId("cache-client")).orElseThrow();
+
+        assertEquals(tenantId, tenant.getId());
+        assertEquals(1, unit.statistics().getQueryCacheHitCount());
+        assertEquals(statements, unit.statistics().getPrepareStatementCount());
+    }
+
+    @Test
+    void repeatedIdentityByUsernameIsQueryCacheHit() {
+        unit.inTransaction(() -> repository.findIdentityByUsername("cache@example.com"));
+        long statements = unit.statistics().getPrepareStatementCount();
+
+        Identity identity = unit.inTransaction(() -> repository.findIdentityByUsername("cache@example.com"))
+                .orElseThrow();
+
+        assertEquals(identityId, identity.getId());
+        assertEquals(1, unit.statistics().getQueryCacheHitCount());
+        assertEquals(statements, unit.statistics().getPrepareStatementCount());
+    }
+
+    // ===== Writes are seen by the next read =====
+    @Test
+    void savedTenantIsNotStale() {
+        Tenant tenant = unit.inTransaction(() -> repository.findTenantById(tenantId)).orElseThrow();
+        unit.inTransaction(() -> repository.findTenantByClientId("cache-client"));
+
+        tenant.setRedirectUri("http://localhost/moved");
+        unit.inTransaction(() -> repository.save(tenant));
+        unit.awaitNextTimestamp();
+        unit.statistics().clear();
+
+        assertEquals("http://localhost/moved",
+                unit.inTransaction(() -> repository.findTenantById(tenantId)).orElseThrow().getRedirectUri());
+        // Updated in place rather than evicted
+        assertEquals(1, region(Tenant.class).getHitCount());
+        assertEquals("http://localhost/moved",
+                unit.inTransaction(() -> repository.findTenantByClientId("cache-client")).orElseThrow()
+                        .getRedirectUri());
+    }
+
+    @Test
+    void savedIdentityIsNotStale() {
+        Identity identity = unit.inTransaction(() -> repository.findIdentityById(identityId)).orElseThrow();
+        unit.inTransaction(() -> repository.findIdentityByUsername("cache@example.com"));
+
+        identity.setPassword("rehashed");
+        unit.inTransaction(() -> repository.save(identity));
+        unit.awaitNextTimestamp();
+        unit.statistics().clear();
+
+        assertEquals("rehashed",
+                unit.inTransaction(() -> repository.findIdentityById(identityId)).orElseThrow().getPassword());
+        assertEquals(1, region(Identity.class).getHitCount());
+        assertEquals("rehashed",
+                unit.inTransaction(() -> repository.findIdentityByUsername("cache@example.com")).orElseThrow()
+                        .getPassword());
+    }
+
+    @Test
+    void deletedGrantIsGone() {
+        Grant grant = unit.inTransaction(() -> {
+            Grant issued = new Grant();
+            issued.setTenant(repository.findTenantById(tenantId).orElseThrow());
+            issued.setIdentity(repository.findIdentityById(identityId).orElseThrow());
+            issued.setApprovedScopes("profile.read");
+            issued.setIssuanceDateTime(LocalDateTime.now());
+            return repository.save(issued);
+        });
+        unit.awaitNextTimestamp();
+        GrantPK id = new GrantPK(tenantId, identityId);
+        assertTrue(unit.inTransaction(() -> repository.findGrant(tenantId, identityId)).isPresent());
+        assertTrue(unit.entityManagerFactory.getCache().contains(Grant.class, id));
+
+        unit.inTransaction(() -> repository.deleteGrant(grant));
+
+        assertFalse(unit.entityManagerFactory.getCache().contains(Grant.class, id));
+        assertFalse(unit.inTransaction(() -> repository.findGrant(tenantId, identityId)).isPresent());
+        EntityManager entityManager = unit.entityManagerFactory.createEntityManager();
+        try {
+            assertNull(entityManager.find(Grant.class, id));
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    // ===== Internal helpers =====
+    private static CacheRegionStatistics region(Class<?> entity) {
+        return unit.statistics().getCacheRegionStatistics(entity.getName());
+    }
+}
@@ -0,0 +1,188 @@
+package org.eclipse.jakarta.IAM.controllers;
+
+import org.eclipse.jakarta.IAM.entities.Grant;
+import org.eclipse.jakarta.IAM.entities.Identity;
+import org.eclipse.jakarta.IAM.entities.RevokedToken;
+import org.eclipse.jakarta.IAM.entities.Scope;
+import org.eclipse.jakarta.IAM.entities.Tenant;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Every query of {@link IAMRepository}, as Hibernate generates it, is explained
+ * by H2 on the schema of {@code db/migration}: each table must be reached through
+ * its primary key, a unique constraint or an {@code idx_*} index, never scanned.
+ *
+ * Each repository method is called once and the SQL it prepares is taken from
+ * the statement inspector. Loading a whole table is a scan by nature: the few
+ * methods meant to do so are listed in {@link #WHOLE_TABLE_READS}.
+ */
+class IAMRepositoryQueryPlanTest {
+
+    // The tenant registry loads every tenant; the startup backfill reads the rows without a mask
+    private static final Set<String> WHOLE_TABLE_READS = Set.of("findAllTenants()", "backfillScopeMasks(ToLongFunction)");
+
+    // H2 names the index of each table access in a comment: /* PUBLIC.PRIMARY_KEY_8: ID = ?1 */
+    private static final Pattern TABLE_ACCESS = Pattern.compile("/\\* PUBLIC\\.([A-Z0-9_]+)(\\.tableScan)?");
+    private static final Pattern USABLE_INDEX = Pattern.compile("PRIMARY_KEY_.*|UK_.*|IDX_.*");
+
+    private static IAMTestUnit unit;
+    private static IAMRepository repository;
+    private static Tenant tenant;
+    private static Identity identity;
+    private static Grant grant;
+
+    @BeforeAll
+    static void start() {
+        unit = new IAMTestUnit("plans");
+        repository = unit.repository;
+
+        Tenant newTenant = new Tenant();
+        newTenant.setClientId("plan-client");
+        newTenant.setClientSecret("secret");
+        newTenant.setName("Plan Client");
+        newTenant.setRedirectUri("http://localhost/callback");
+        newTenant.setRequiredScopes("profile.read");
+        tenant = unit.inTransaction(() -> repository.save(newTenant));
+
+        Identity newIdentity = new Identity();
+        newIdentity.setUsername("plan@example.com");
+        newIdentity.setPassword("hash");
+        newIdentity.setProvidedScopes("profile.read");
+        identity = unit.inTransaction(() -> repository.save(newIdentity));
+
+        grant = unit.inTransaction(() -> {
+            Grant issued = new Grant();
+            issued.setTenant(tenant);
+            issued.setIdentity(identity);
+            issued.setApprovedScopes("profile.read");
+            issued.setIssuanceDateTime(LocalDateTime.now());
+            return repository.save(issued);
+        });
+    }
+
+    @AfterAll
+    static void stop() {
+        unit.close();
+    }
+
+    // ===== One call per public repository method, on existing rows =====
+    private static Map<String, Runnable> calls() {
+        Map<String, Runnable> calls = new LinkedHashMap<>();
+        calls.put("findTenantByName(String)", () -> repository.findTenantByName("Plan Client"));
+        calls.put("findTenantByClientId(String)", () -> repository.findTenantByClientId("plan-client"));
+        calls.put("findTenantById(Short)", () -> repository.findTenantById(tenant.getId()));
+        calls.put("findAllTenants()", repository::findAllTenants);
+        calls.put("findIdentityByUsername(String)", () -> repository.findIdentityByUsername("plan@example.com"));
+        calls.put("findIdentityById(Long)", () -> repository.findIdentityById(identity.getId()));
+        calls.put("findGrant(Short,Long)", () -> repository.findGrant(tenant.getId(), identity.getId()));
+        calls.put("findApprovedScopesMasks(Short,Collection)",
+                () -> repository.findApprovedScopesMasks(tenant.getId(), List.of(identity.getId(), 0L)));
+        calls.put("isRevoked(String)", () -> repository.isRevoked("plan-token"));
+        calls.put("findRevokedTokenIds(LocalDateTime)",
+                () -> repository.findRevokedTokenIds(LocalDateTime.now().minusMinutes(1)));
+        calls.put("revoke(RevokedToken)", () -> repository.revoke(new RevokedToken("plan-token",
+                LocalDateTime.now(), LocalDateTime.now().plusHours(1))));
+        calls.put("deleteRevokedTokensExpiredBefore(LocalDateTime)",
+                () -> repository.deleteRevokedTokensExpiredBefore(LocalDateTime.now()));
+        calls.put("findAllScopes()", repository::findAllScopes);
+        calls.put("insertScope(Scope)", () -> repository.insertScope(new Scope((short) 63, "plan.scope")));
+        calls.put("backfillScopeMasks(ToLongFunction)", () -> repository.backfillScopeMasks(scopes -> 0L));
+        calls.put("save(Identity)", () -> repository.save(identity));
+        calls.put("save(Tenant)", () -> repository.save(tenant));
+        calls.put("save(Grant)", () -> repository.save(grant));
+        calls.put("deleteGrant(Grant)", () -> repository.deleteGrant(grant));
+        return calls;
+    }
+
+    @Test
+    void everyRepositoryMethodIsExplained() {
+        Set<String> methods = Arrays.stream(IAMRepository.class.getDeclaredMethods())
+                .filter(method -> Modifier.isPublic(method.getModifiers()))
+                .map(IAMRepositoryQueryPlanTest::signature)
+                .collect(Collectors.toCollection(TreeSet::new));
+        assertEquals(methods, new TreeSet<>(calls().keySet()), "Repository methods without a plan check");
+    }
+
+    @TestFactory
+    Stream<DynamicTest> everyQueryUsesAnIndex() {
+        return calls().entrySet().stream().map(call -> DynamicTest.dynamicTest(call.getKey(), () -> {
+            // Statements are prepared only when the caches cannot answer
+            unit.entityManagerFactory.getCache().evictAll();
+            unit.statements.clear();
+            unit.inTransaction(call.getValue());
+
+            List<String> queries = unit.statements.stream()
+                    .filter(sql -> !sql.trim().toLowerCase(Locale.ROOT).startsWith("insert"))
+                    .toList();
+            for (String sql : queries) {
+                String plan = explain(sql);
+                if (WHOLE_TABLE_READS.contains(call.getKey())) {
+                    continue;
+                }
+                Matcher access = TABLE_ACCESS.matcher(plan);
+                boolean accessed = false;
+                while (access.find()) {
+                    accessed = true;
+                    assertTrue(access.group(2) == null && USABLE_INDEX.matcher(access.group(1)).matches(),
+                            call.getKey() + " does not use an index:\n" + sql + "\n" + plan);
+                }
+                assertTrue(accessed, "No table access in the plan of " + call.getKey() + ":\n" + plan);
+            }
+            if (!call.getKey().startsWith("insertScope")) {
+                assertFalse(queries.isEmpty(), call.getKey() + " ran no query");
+            }
+        }));
+    }
+
+    // ===== Internal helpers =====
+    private static String explain(String sql) throws SQLException {
+        try (Connection connection = unit.dataSource.getConnection();
+             PreparedStatement explain = connection.prepareStatement("EXPLAIN " + sql)) {
+            // The plan depends on the conditions, not on the values
+            for (int i = 1; i <= explain.getParameterMetaData().getParameterCount(); i++) {
+                explain.setNull(i, Types.NULL);
+            }
+            try (ResultSet result = explain.executeQuery()) {
+                if (!result.next()) {
+                    fail("No plan for " + sql);
+                }
+                return result.getString(1);
+            }
+        }
+    }
+
+    private static String signature(Method method) {
+        return method.getName() + Arrays.stream(method.getParameterTypes())
+                .map(Class::getSimpleName)
+                .collect(Collectors.joining(",", "(", ")"));
+    }
+}
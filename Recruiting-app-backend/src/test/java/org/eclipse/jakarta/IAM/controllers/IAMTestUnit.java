@@ -0,0 +1,134 @@
+package org.eclipse.jakarta.IAM.controllers;
+
+import jakarta.enterprise.event.Event;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Persistence;
+import org.h2.jdbcx.JdbcDataSource;
+import org.hibernate.SessionFactory;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.stat.Statistics;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+/**
+ * The {@code iam} persistence unit of {@code META-INF/persistence.xml} outside
+ * WildFly: an in-memory H2 database brought up to date by {@link SchemaMigrator},
+ * a local Infinispan second-level cache, and an {@link IAMRepository} wired the
+ * way the container does it.
+ *
+ * As with the container's transaction-scoped persistence context, the
+ * repository sees the entity manager of the current {@link #inTransaction}
+ * call, a new one for each transaction. Every SQL statement Hibernate prepares
+ * is recorded in {@link #statements}.
+ */
+final class IAMTestUnit implements AutoCloseable {
+
+    private static final String LOCAL_CACHE_CONFIG =
+            "org/infinispan/hibernate/cache/commons/builder/infinispan-configs-local.xml";
+
+    final JdbcDataSource dataSource = new JdbcDataSource();
+    final EntityManagerFactory entityManagerFactory;
+    final IAMRepository repository = new IAMRepository();
+    final ScopeRegistry scopeRegistry = new ScopeRegistry();
+    final List<String> statements = new CopyOnWriteArrayList<>();
+    private EntityManager current;
+
+    IAMTestUnit(String database) {
+        dataSource.setURL("jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1");
+        SchemaMigrator migrator = new SchemaMigrator();
+        inject(migrator, "dataSource", dataSource);
+        migrator.migrate();
+
+        entityManagerFactory = Persistence.createEntityManagerFactory("iam", Map.of(
+                "jakarta.persistence.transactionType", "RESOURCE_LOCAL",
+                "jakarta.persistence.nonJtaDataSource", dataSource,
+                // The schema is the migrated one, whatever profile filtered persistence.xml
+                "hibernate.hbm2ddl.auto", "none",
+                "hibernate.show_sql", "false",
+                "hibernate.session.events.log", "false",
+                "hibernate.cache.region.factory_class", "infinispan",
+                "hibernate.cache.infinispan.cfg", LOCAL_CACHE_CONFIG,
+                "hibernate.session_factory.statement_inspector", (StatementInspector) sql -> {
+                    statements.add(sql);
+                    return sql;
+                }));
+
+        inject(repository, "entityManager", Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{EntityManager.class}, (proxy, method, args) -> {
+                    try {
+                        return method.invoke(current, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                }));
+        // Tenant saves are observed by the registry, which is not deployed here
+        inject(repository, "tenantSaved", Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{Event.class}, (proxy, method, args) -> null));
+        inject(repository, "scopeRegistry", scopeRegistry);
+        inject(scopeRegistry, "iamRepository", repository);
+        inTransaction(scopeRegistry::start);
+    }
+
+    // ===== One transaction, with its own persistence context =====
+    <T> T inTransaction(Supplier<T> work) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        current = entityManager;
+        try {
+            entityManager.getTransaction().begin();
+            T result = work.get();
+            entityManager.getTransaction().commit();
+            return result;
+        } finally {
+            if (entityManager.getTransaction().isActive()) {
+                entityManager.getTransaction().rollback();
+            }
+            entityManager.close();
+            current = null;
+        }
+    }
+
+    void inTransaction(Runnable work) {
+        inTransaction(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * Infinispan stamps cache operations with the wall clock in milliseconds: a
+     * load in the same millisecond as an eviction or a write is not cached, and a
+     * query result cached then is considered stale. Tests wait for the next one.
+     */
+    void awaitNextTimestamp() {
+        long now = System.currentTimeMillis();
+        while (System.currentTimeMillis() <= now + 1) {
+            Thread.onSpinWait();
+        }
+    }
+
+    Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Override
+    public void close() {
+        entityManagerFactory.close();
+    }
+
+    private static void inject(Object target, String name, Object value) {
+        try {
+            Field field = target.getClass().getDeclaredField(name);
+            field.setAccessible(true);
+            field.set(target, value);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package org.eclipse.jakarta.IAM.controllers;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.RepeatedTest;
+
+import java.lang.reflect.Field;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Nodes sharing a database start at the same time: each must come up with the
+ * schema migrated, whichever of them records a version first.
+ */
+class SchemaMigratorTest {
+
+    private static final int NODES = 4;
+    private static final AtomicInteger DATABASES = new AtomicInteger();
+
+    @RepeatedTest(10)
+    void concurrentNodesAllMigrate() throws Exception {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:race" + DATABASES.incrementAndGet() + ";DB_CLOSE_DELAY=-1");
+        CyclicBarrier start = new CyclicBarrier(NODES);
+        ExecutorService nodes = Executors.newFixedThreadPool(NODES);
+        try {
+            List<Future<Integer>> versions = new ArrayList<>();
+            for (int i = 0; i < NODES; i++) {
+                versions.add(nodes.submit(() -> {
+                    SchemaMigrator migrator = migrator(dataSource);
+                    start.await();
+                    migrator.migrate();
+                    return migrator.version();
+                }));
+            }
+            List<Integer> migrated = new ArrayList<>();
+            for (Future<Integer> version : versions) {
+                migrated.add(version.get());
+            }
+            // Every version recorded once, and every node at the last one
+            int latest = recordedVersion(dataSource);
+            assertEquals(latest, recordedVersions(dataSource));
+            assertEquals(List.of(latest, latest, latest, latest), migrated);
+        } finally {
+            nodes.shutdownNow();
+        }
+    }
+
+    // ===== Internal helpers =====
+    private static SchemaMigrator migrator(JdbcDataSource dataSource) throws ReflectiveOperationException {
+        SchemaMigrator migrator = new SchemaMigrator();
+        Field field = SchemaMigrator.class.getDeclaredField("dataSource");
+        field.setAccessible(true);
+        field.set(migrator, dataSource);
+        return migrator;
+    }
+
+    private static int recordedVersion(JdbcDataSource dataSource) throws SQLException {
+        return count(dataSource, "SELECT MAX(version) FROM schema_version");
+    }
+
+    private static int recordedVersions(JdbcDataSource dataSource) throws SQLException {
+        return count(dataSource, "SELECT COUNT(*) FROM schema_version WHERE version > 0");
+    }
+
+    private static int count(JdbcDataSource dataSource, String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery(sql)) {
+            result.next();
+            return result.getInt(1);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package org.eclipse.jakarta.IAM.security;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jwt.JWT;
+import com.nimbusds.jwt.SignedJWT;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Key ring handling per {@link SigningAlgorithm}: a node signs only with keys of
+ * its configured algorithm and keeps the others to verify the tokens they signed.
+ */
+class JwtManagerTest {
+
+    @TempDir
+    Path directory;
+
+    @AfterEach
+    void clearProperties() {
+        System.clearProperty("iam.jwt.algorithm");
+        System.clearProperty("iam.keystore.path");
+    }
+
+    @Test
+    void switchingAlgorithmSignsWithKeysOfTheNewOne() throws ParseException {
+        System.setProperty("iam.keystore.path", directory.resolve("keys.json").toString());
+
+        JwtManager eddsa = start(SigningAlgorithm.EdDSA);
+        String before = eddsa.generateAccessToken("client", "alice", "profile.read", null);
+        assertEquals(JWSAlgorithm.EdDSA, SignedJWT.parse(before).getHeader().getAlgorithm());
+
+        // Same key store, pre-generated EdDSA keys still unexpired
+        JwtManager es256 = start(SigningAlgorithm.ES256);
+        String after = es256.generateAccessToken("client", "alice", "profile.read", null);
+        assertEquals(JWSAlgorithm.ES256, SignedJWT.parse(after).getHeader().getAlgorithm());
+
+        Optional<JWT> validated = es256.validateJWT(before);
+        assertTrue(validated.isPresent(), "tokens signed before the switch stay valid");
+        es256.stop();
+        eddsa.stop();
+    }
+
+    @Test
+    void inMemoryRingSignsWithTheConfiguredAlgorithm() throws ParseException {
+        JwtManager es256 = start(SigningAlgorithm.ES256);
+        String token = es256.generateAccessToken("client", "alice", "profile.read", null);
+        assertEquals(JWSAlgorithm.ES256, SignedJWT.parse(token).getHeader().getAlgorithm());
+        assertTrue(es256.validateJWT(token).isPresent());
+        es256.stop();
+    }
+
+    private static JwtManager start(SigningAlgorithm algorithm) {
+        System.setProperty("iam.jwt.algorithm", algorithm.name());
+        JwtManager jwtManager = new JwtManager();
+        jwtManager.start();
+        return jwtManager;
+    }
+}
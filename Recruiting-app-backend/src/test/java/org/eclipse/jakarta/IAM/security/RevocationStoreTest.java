@@ -0,0 +1,71 @@
+package org.eclipse.jakarta.IAM.security;
+
+import jakarta.persistence.PersistenceException;
+import org.h2.jdbcx.JdbcDataSource;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Only a duplicate key counts as an earlier revocation: the other constraint
+ * violations raised by the database are failures, not replays.
+ */
+class RevocationStoreTest {
+
+    private static Connection connection;
+
+    @BeforeAll
+    static void start() throws SQLException {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:revocation;DB_CLOSE_DELAY=-1");
+        connection = dataSource.getConnection();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE parent (id VARCHAR(64) PRIMARY KEY)");
+            statement.execute("CREATE TABLE revoked (id VARCHAR(64) PRIMARY KEY, expires_at TIMESTAMP NOT NULL,"
+                    + " parent_id VARCHAR(64) REFERENCES parent (id))");
+            statement.execute("INSERT INTO revoked (id, expires_at) VALUES ('jti', CURRENT_TIMESTAMP)");
+        }
+    }
+
+    @AfterAll
+    static void stop() throws SQLException {
+        connection.close();
+    }
+
+    @Test
+    void duplicateKeyIsAnEarlierRevocation() {
+        SQLException duplicate = failure("INSERT INTO revoked (id, expires_at) VALUES ('jti', CURRENT_TIMESTAMP)");
+        assertTrue(RevocationStore.isDuplicate(new PersistenceException(duplicate)));
+        assertTrue(RevocationStore.isDuplicate(new PersistenceException(new ConstraintViolationException(
+                "duplicate", duplicate, null, ConstraintViolationException.ConstraintKind.UNIQUE, "pk"))));
+    }
+
+    @Test
+    void otherConstraintViolationsAreFailures() {
+        SQLException notNull = failure("INSERT INTO revoked (id, expires_at) VALUES ('other', NULL)");
+        SQLException foreignKey = failure(
+                "INSERT INTO revoked (id, expires_at, parent_id) VALUES ('child', CURRENT_TIMESTAMP, 'none')");
+        assertFalse(RevocationStore.isDuplicate(new PersistenceException(notNull)));
+        assertFalse(RevocationStore.isDuplicate(new PersistenceException(foreignKey)));
+        assertFalse(RevocationStore.isDuplicate(new PersistenceException(new ConstraintViolationException(
+                "not null", notNull, null, ConstraintViolationException.ConstraintKind.OTHER, null))));
+        assertFalse(RevocationStore.isDuplicate(new PersistenceException("connection lost")));
+    }
+
+    private static SQLException failure(String sql) {
+        return assertThrows(SQLException.class, () -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(sql);
+            }
+        });
+    }
+}